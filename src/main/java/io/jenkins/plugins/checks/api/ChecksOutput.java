@@ -56,7 +56,8 @@ public class ChecksOutput {
     }
 
     /**
-     * Get the output summary, truncated by {@link TruncatedString} to maxSize.
+     * Get the output summary, truncated by {@link TruncatedString} to maxSize. The result is remembered, so that
+     * calling this repeatedly with the same size does not truncate again.
      *
      * @param maxSize maximum size to truncate summary to.
      * @return Summary, truncated to maxSize with truncation message if appropriate.
@@ -70,7 +71,8 @@ public class ChecksOutput {
     }
 
     /**
-     * Get the output text, truncated by {@link TruncatedString} to maxSize.
+     * Get the output text, truncated by {@link TruncatedString} to maxSize. The result is remembered, so that
+     * calling this repeatedly with the same size does not truncate again.
      *
      * @param maxSize maximum size to truncate text to.
      * @return Text, truncated to maxSize with truncation message if appropriate.
@@ -0,0 +1,90 @@
+package io.jenkins.plugins.checks.api;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+
+/**
+ * The result of publishing a check by {@link ChecksPublisher#publishAsync(ChecksDetails)}.
+ */
+public final class ChecksPublishResult {
+    /**
+     * The outcome of publishing a check.
+     */
+    public enum Outcome {
+        /** The check has been accepted by the platform. */
+        ACCEPTED,
+        /** The check has not been sent, as it has been superseded by a later check with the same name. */
+        DEDUPLICATED,
+        /** The check could not be published. */
+        FAILED
+    }
+
+    private final Outcome outcome;
+    private final Duration latency;
+    @CheckForNull
+    private final Throwable failure;
+
+    private ChecksPublishResult(final Outcome outcome, final Duration latency, @CheckForNull final Throwable failure) {
+        this.outcome = outcome;
+        this.latency = latency;
+        this.failure = failure;
+    }
+
+    /**
+     * Creates the result of a check that has been accepted by the platform.
+     *
+     * @param latency
+     *         the time from publishing the check until it has been accepted
+     * @return the result
+     */
+    public static ChecksPublishResult accepted(final Duration latency) {
+        return new ChecksPublishResult(Outcome.ACCEPTED, latency, null);
+    }
+
+    /**
+     * Creates the result of a check that has not been sent, as it has been superseded by a later check.
+     *
+     * @param latency
+     *         the time from publishing the check until it has been superseded
+     * @return the result
+     */
+    public static ChecksPublishResult deduplicated(final Duration latency) {
+        return new ChecksPublishResult(Outcome.DEDUPLICATED, latency, null);
+    }
+
+    /**
+     * Creates the result of a check that could not be published.
+     *
+     * @param latency
+     *         the time from publishing the check until it failed
+     * @param failure
+     *         the reason of the failure
+     * @return the result
+     */
+    public static ChecksPublishResult failed(final Duration latency, final Throwable failure) {
+        return new ChecksPublishResult(Outcome.FAILED, latency, failure);
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    public Duration getLatency() {
+        return latency;
+    }
+
+    public Optional<Throwable> getFailure() {
+        return Optional.ofNullable(failure);
+    }
+
+    @Override
+    public String toString() {
+        return "ChecksPublishResult{"
+                + "outcome=" + outcome
+                + ", latency=" + latency
+                + ", failure=" + failure
+                + '}';
+    }
+}
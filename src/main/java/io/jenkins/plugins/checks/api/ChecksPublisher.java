@@ -1,5 +1,9 @@
 package io.jenkins.plugins.checks.api;
 
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+
 import hudson.model.Job;
 import hudson.model.TaskListener;
 import io.jenkins.plugins.util.PluginLogger;
@@ -16,6 +20,53 @@ public abstract class ChecksPublisher {
      */
     public abstract void publish(ChecksDetails details);
 
+    /**
+     * Publishes a check and returns a future that is completed with the result, so that callers can go on with their
+     * work while the check is sent and still observe whether and when it has been published.
+     *
+     * <p>
+     * By default, the check is published by {@link #publish(ChecksDetails)} on the calling thread and the returned
+     * future is already completed; a failure of the publisher is reported as a
+     * {@link ChecksPublishResult.Outcome#FAILED} result. Override this method if the platform client is asynchronous;
+     * the checks with the same name still have to be published in the order this method is called.
+     * </p>
+     *
+     * @param details
+     *         the details of a check
+     * @return the future result of publishing the check
+     */
+    @SuppressWarnings("IllegalCatch")
+    public CompletableFuture<ChecksPublishResult> publishAsync(final ChecksDetails details) {
+        long start = System.nanoTime();
+        try {
+            publish(details);
+            return CompletableFuture.completedFuture(
+                    ChecksPublishResult.accepted(Duration.ofNanos(System.nanoTime() - start)));
+        }
+        catch (RuntimeException exception) {
+            return CompletableFuture.completedFuture(
+                    ChecksPublishResult.failed(Duration.ofNanos(System.nanoTime() - start), exception));
+        }
+    }
+
+    /**
+     * Publishes several checks that are ready at the same time, e.g. the checks of several names when a run completes.
+     *
+     * <p>
+     * By default, the checks are published one after another by {@link #publish(ChecksDetails)}. Override this method
+     * if the platform allows to send several checks in one request or to pipeline the requests; the checks with the
+     * same name still have to be published in the order of the collection.
+     * </p>
+     *
+     * @param details
+     *         the details of the checks
+     */
+    public void publishAll(final Collection<ChecksDetails> details) {
+        for (ChecksDetails check : details) {
+            publish(check);
+        }
+    }
+
     /**
      * A null publisher. This publisher will be returned by {@link ChecksPublisherFactory#fromJob(Job, TaskListener)}
      * only when there is no suitable publisher for the given {@code run}.
@@ -38,5 +89,12 @@ public abstract class ChecksPublisher {
         public void publish(final ChecksDetails details) {
             logger.log("No suitable checks publisher found.");
         }
+
+        @Override
+        public void publishAll(final Collection<ChecksDetails> details) {
+            if (!details.isEmpty()) {
+                logger.log("No suitable checks publisher found.");
+            }
+        }
     }
 }
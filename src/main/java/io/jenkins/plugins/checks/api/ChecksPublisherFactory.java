@@ -85,23 +85,31 @@ public abstract class ChecksPublisherFactory implements ExtensionPoint {
     @VisibleForTesting
     static ChecksPublisher fromRun(final Run<?, ?> run, final TaskListener listener,
                                    final JenkinsFacade jenkinsFacade) {
-        return findAllPublisherFactories(jenkinsFacade).stream()
-                .map(factory -> factory.createPublisher(run, listener))
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .findFirst()
-                .orElse(new NullChecksPublisher(createLogger(listener)));
+        return fromRun(run, listener, jenkinsFacade, ChecksPublisherFactoryCache.INSTANCE);
+    }
+
+    @VisibleForTesting
+    static ChecksPublisher fromRun(final Run<?, ?> run, final TaskListener listener,
+                                   final JenkinsFacade jenkinsFacade, final ChecksPublisherFactoryCache cache) {
+        // the factory of a run is only remembered while it is running, as it is forgotten when the run is finalized
+        return cache.createForRun(run.isBuilding() ? run.getExternalizableId() : null,
+                        findAllPublisherFactories(jenkinsFacade),
+                        factory -> factory.createPublisher(run, listener))
+                .orElseGet(() -> new NullChecksPublisher(createLogger(listener)));
     }
 
     @VisibleForTesting
     static ChecksPublisher fromJob(final Job<?, ?> job, final TaskListener listener,
                                    final JenkinsFacade jenkinsFacade) {
-        return findAllPublisherFactories(jenkinsFacade).stream()
-                .map(factory -> factory.createPublisher(job, listener))
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .findFirst()
-                .orElse(new NullChecksPublisher(createLogger(listener)));
+        return fromJob(job, listener, jenkinsFacade, ChecksPublisherFactoryCache.INSTANCE);
+    }
+
+    @VisibleForTesting
+    static ChecksPublisher fromJob(final Job<?, ?> job, final TaskListener listener,
+                                   final JenkinsFacade jenkinsFacade, final ChecksPublisherFactoryCache cache) {
+        return cache.createForJob(job.getFullName(), findAllPublisherFactories(jenkinsFacade),
+                        factory -> factory.createPublisher(job, listener))
+                .orElseGet(() -> new NullChecksPublisher(createLogger(listener)));
     }
 
     private static List<ChecksPublisherFactory> findAllPublisherFactories(final JenkinsFacade jenkinsFacade) {
@@ -0,0 +1,146 @@
+package io.jenkins.plugins.checks.api;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+import hudson.Extension;
+import hudson.ExtensionList;
+import hudson.ExtensionListListener;
+import hudson.init.InitMilestone;
+import hudson.init.Initializer;
+import hudson.model.Run;
+import hudson.model.listeners.RunListener;
+
+/**
+ * Remembers which {@link ChecksPublisherFactory} created the publisher for a run or job, so that the publishers of
+ * the following checks are created by asking that factory only instead of trying every factory again.
+ *
+ * <p>
+ * As a factory may apply to some runs of a job only, e.g. depending on the revision a run has checked out, the
+ * factories of runs are remembered by the externalizable ID of the running run and forgotten when it is finalized;
+ * the factories of jobs are remembered by the full name of the job. So a factory with a higher priority is only
+ * skipped for the rest of the run it did not apply to at first. Only a factory that created a publisher is
+ * remembered: if it does not create one the next time, all factories are tried again in the order of their
+ * extensions. The factories of an item and of the jobs and runs within it are forgotten when the item is saved,
+ * deleted or moved, as this may change its SCM, and all factories are forgotten when the extension list of the
+ * factories changes.
+ * </p>
+ */
+@Restricted(NoExternalUse.class)
+public final class ChecksPublisherFactoryCache {
+    static final ChecksPublisherFactoryCache INSTANCE = new ChecksPublisherFactoryCache(
+            ItemKeyedCache.invalidatedOnItemChanges(), ItemKeyedCache.invalidatedOnItemChanges());
+
+    private final ItemKeyedCache<ChecksPublisherFactory> runFactories;
+    private final ItemKeyedCache<ChecksPublisherFactory> jobFactories;
+
+    ChecksPublisherFactoryCache() {
+        this(new ItemKeyedCache<>(), new ItemKeyedCache<>());
+    }
+
+    private ChecksPublisherFactoryCache(final ItemKeyedCache<ChecksPublisherFactory> runFactories,
+            final ItemKeyedCache<ChecksPublisherFactory> jobFactories) {
+        this.runFactories = runFactories;
+        this.jobFactories = jobFactories;
+    }
+
+    Optional<ChecksPublisher> createForRun(@CheckForNull final String runId,
+            final List<ChecksPublisherFactory> factories,
+            final Function<ChecksPublisherFactory, Optional<ChecksPublisher>> createPublisher) {
+        return create(runFactories, runId, factories, createPublisher);
+    }
+
+    Optional<ChecksPublisher> createForJob(@CheckForNull final String jobName,
+            final List<ChecksPublisherFactory> factories,
+            final Function<ChecksPublisherFactory, Optional<ChecksPublisher>> createPublisher) {
+        return create(jobFactories, jobName, factories, createPublisher);
+    }
+
+    private Optional<ChecksPublisher> create(final ItemKeyedCache<ChecksPublisherFactory> resolved,
+            @CheckForNull final String key, final List<ChecksPublisherFactory> factories,
+            final Function<ChecksPublisherFactory, Optional<ChecksPublisher>> createPublisher) {
+        if (key != null) {
+            ChecksPublisherFactory factory = resolved.get(key);
+            // the factory may be gone although no listener has been notified, e.g. when a different facade is used
+            if (factory != null && factories.contains(factory)) {
+                Optional<ChecksPublisher> publisher = createPublisher.apply(factory);
+                if (publisher.isPresent()) {
+                    return publisher;
+                }
+            }
+        }
+
+        long resolvedGeneration = resolved.getGeneration();
+        for (ChecksPublisherFactory factory : factories) {
+            Optional<ChecksPublisher> publisher = createPublisher.apply(factory);
+            if (publisher.isPresent()) {
+                if (key != null) {
+                    resolved.put(key, factory, resolvedGeneration);
+                }
+                return publisher;
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Forgets the factories of the item with the given full name and of all jobs and runs within it.
+     *
+     * @param fullName
+     *         the full name of the item
+     */
+    void invalidate(final String fullName) {
+        runFactories.invalidate(fullName);
+        jobFactories.invalidate(fullName);
+    }
+
+    /**
+     * Forgets the factory of a run that has been finalized.
+     *
+     * @param runId
+     *         the externalizable ID of the run
+     */
+    void forgetRun(final String runId) {
+        runFactories.remove(runId);
+    }
+
+    /**
+     * Forgets the factories of all runs and jobs.
+     */
+    void invalidateAll() {
+        runFactories.invalidateAll();
+        jobFactories.invalidateAll();
+    }
+
+    /**
+     * Forgets the factories of all jobs, as the extensions have been loaded anew, and registers a listener that does
+     * so whenever the factories change, e.g. when a plugin is installed dynamically.
+     */
+    @Initializer(after = InitMilestone.EXTENSIONS_AUGMENTED)
+    public static void listenToFactoryExtensions() {
+        INSTANCE.invalidateAll();
+        ExtensionList.lookup(ChecksPublisherFactory.class).addListener(new ExtensionListListener() {
+            @Override
+            public void onChange() {
+                INSTANCE.invalidateAll();
+            }
+        });
+    }
+
+    /**
+     * Forgets the factory of a run once it has been finalized, as no further checks are published for it.
+     */
+    @Extension
+    public static class FactoryCacheRunListener extends RunListener<Run<?, ?>> {
+        @Override
+        public void onFinalized(final Run<?, ?> run) {
+            INSTANCE.forgetRun(run.getExternalizableId());
+        }
+    }
+}
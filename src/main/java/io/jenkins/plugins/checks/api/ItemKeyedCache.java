@@ -0,0 +1,168 @@
+package io.jenkins.plugins.checks.api;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+import hudson.Extension;
+import hudson.XmlFile;
+import hudson.model.Item;
+import hudson.model.Saveable;
+import hudson.model.listeners.ItemListener;
+import hudson.model.listeners.SaveableListener;
+
+/**
+ * Values cached by the full name of a job or the externalizable ID of a run, which depend on the configuration of
+ * the job or of the folders containing it. The values of an item and of all jobs and runs within it are invalidated
+ * when the item is saved, deleted or moved, if the cache has been created by {@link #invalidatedOnItemChanges()}.
+ *
+ * <p>
+ * As a value may be resolved while its item changes, the invalidations are counted: a value is only stored if there
+ * has been no invalidation since the resolution started, see {@link #getGeneration()}.
+ * </p>
+ *
+ * @param <T>
+ *         the type of the cached values
+ */
+@Restricted(NoExternalUse.class)
+public final class ItemKeyedCache<T> {
+    private static final List<ItemKeyedCache<?>> ITEM_CHANGE_CACHES = new CopyOnWriteArrayList<>();
+
+    private final Map<String, T> values = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Creates a cache that is only invalidated explicitly.
+     */
+    public ItemKeyedCache() {
+        // invalidated by its owner
+    }
+
+    /**
+     * Creates a cache that is invalidated whenever an item is saved, deleted or moved. The cache is never released,
+     * so it should be stored in a constant.
+     *
+     * @param <T>
+     *         the type of the cached values
+     * @return the cache
+     */
+    public static <T> ItemKeyedCache<T> invalidatedOnItemChanges() {
+        ItemKeyedCache<T> cache = new ItemKeyedCache<>();
+        ITEM_CHANGE_CACHES.add(cache);
+        return cache;
+    }
+
+    /**
+     * Returns the cached value of the given key.
+     *
+     * @param key
+     *         the full name of the job or the externalizable ID of the run
+     * @return the value, or {@code null} if it is not cached
+     */
+    @CheckForNull
+    public T get(final String key) {
+        return values.get(key);
+    }
+
+    /**
+     * Returns the number of invalidations so far, which has to be passed to {@link #put(String, Object, long)} when
+     * the value has been resolved.
+     *
+     * @return the number of invalidations
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Stores a resolved value, unless the cache has been invalidated since the resolution started.
+     *
+     * @param key
+     *         the full name of the job or the externalizable ID of the run
+     * @param value
+     *         the value
+     * @param resolvedGeneration
+     *         the {@link #getGeneration() generation} when the resolution started
+     */
+    public void put(final String key, final T value, final long resolvedGeneration) {
+        if (generation.get() == resolvedGeneration) {
+            values.put(key, value);
+        }
+    }
+
+    /**
+     * Removes the value of the given key only, e.g. of a run that has finished.
+     *
+     * @param key
+     *         the full name of the job or the externalizable ID of the run
+     */
+    public void remove(final String key) {
+        values.remove(key);
+    }
+
+    /**
+     * Removes the values of the item with the given full name and of all jobs and runs within it, e.g. the branch
+     * jobs of a multibranch project.
+     *
+     * @param fullName
+     *         the full name of the item
+     */
+    public void invalidate(final String fullName) {
+        generation.incrementAndGet();
+        String folderPrefix = fullName + "/";
+        String runPrefix = fullName + "#";
+        values.keySet().removeIf(key -> key.equals(fullName) || key.startsWith(folderPrefix)
+                || key.startsWith(runPrefix));
+    }
+
+    /**
+     * Removes all values.
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        values.clear();
+    }
+
+    private static void invalidateItem(final String fullName) {
+        for (ItemKeyedCache<?> cache : ITEM_CHANGE_CACHES) {
+            cache.invalidate(fullName);
+        }
+    }
+
+    /**
+     * Invalidates the values of an item when its configuration, or that of a folder containing it, is saved.
+     */
+    @Extension
+    public static class ItemSaveListener extends SaveableListener {
+        @Override
+        public void onChange(final Saveable o, final XmlFile file) {
+            if (o instanceof Item) {
+                invalidateItem(((Item) o).getFullName());
+            }
+        }
+    }
+
+    /**
+     * Invalidates the values of an item when it is deleted or moved.
+     */
+    @Extension
+    public static class ItemChangeListener extends ItemListener {
+        @Override
+        public void onDeleted(final Item item) {
+            invalidateItem(item.getFullName());
+        }
+
+        @Override
+        public void onLocationChanged(final Item item, final String oldFullName, final String newFullName) {
+            invalidateItem(oldFullName);
+            invalidateItem(newFullName);
+        }
+    }
+}
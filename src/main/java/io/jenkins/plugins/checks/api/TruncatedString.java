@@ -1,18 +1,23 @@
 package io.jenkins.plugins.checks.api;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.List;
 import java.util.Objects;
-import java.util.Set;
-import java.util.function.BiConsumer;
-import java.util.function.BinaryOperator;
-import java.util.function.Function;
-import java.util.function.Supplier;
 import java.util.stream.Collector;
 
+import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
 
 /**
@@ -26,18 +31,44 @@ import edu.umd.cs.findbugs.annotations.NonNull;
  * </p>
  */
 public class TruncatedString {
-    private final List<String> chunks;
+    /** The number of build results remembered, as callers usually build with one or two sizes only. */
+    private static final int MEMO_SIZE = 4;
+
+    private final List<CharSequence> chunks;
     private final String truncationText;
     private final boolean truncateStart;
+    private final boolean truncateMiddle;
+    private final int headSize;
     private final boolean chunkOnNewlines;
+    private final boolean fillPartialChunks;
     private final boolean forceTruncationText;
+    private final boolean discarded;
+    private final boolean discardedPartialLine;
+    private final int tailStart;
+
+    /** Prefix sums of the UTF-8 byte lengths of the chunks, computed on the first build by bytes. */
+    @CheckForNull
+    private volatile long[] byteOffsets;
+
+    /** The joined chunks, computed on the first call of {@link #toString()}. */
+    @CheckForNull
+    private volatile String joined;
+
+    /** The most recent build results, latest first; the array is replaced rather than modified. */
+    private volatile BuildResult[] buildResults = new BuildResult[0];
 
-    private TruncatedString(@NonNull final List<String> chunks, @NonNull final String truncationText, final boolean truncateStart, final boolean chunkOnNewlines, final boolean forceTruncationText) {
+    private TruncatedString(@NonNull final List<CharSequence> chunks, @NonNull final Builder builder, final int tailStart) {
         this.chunks = Collections.unmodifiableList(Objects.requireNonNull(chunks));
-        this.truncationText = Objects.requireNonNull(truncationText);
-        this.truncateStart = truncateStart;
-        this.chunkOnNewlines = chunkOnNewlines;
-        this.forceTruncationText = forceTruncationText;
+        this.truncationText = Objects.requireNonNull(builder.truncationText);
+        this.truncateStart = builder.truncateStart;
+        this.truncateMiddle = builder.truncateMiddle;
+        this.headSize = builder.headSize;
+        this.chunkOnNewlines = builder.chunkOnNewlines;
+        this.fillPartialChunks = builder.fillPartialChunks;
+        this.forceTruncationText = builder.forceTruncationText;
+        this.discarded = builder.discarded;
+        this.discardedPartialLine = builder.discardedPartialLine;
+        this.tailStart = tailStart;
     }
 
     /**
@@ -51,20 +82,19 @@ public class TruncatedString {
     }
 
     /**
-     * Builds the string without truncation.
+     * Builds the string without truncation. If the builder discarded text because of its maximum size, only the
+     * retained text is returned.
      *
      * @return A string comprising the joined chunks.
      */
     @Override
     public String toString() {
-        return String.join("", chunks);
-    }
-
-    private List<String> getChunks() {
-        if (chunkOnNewlines) {
-            return Arrays.asList(String.join("", chunks).split("(?<=\r?\n)"));
+        String value = joined;
+        if (value == null) {
+            value = String.join("", chunks);
+            joined = value;
         }
-        return new ArrayList<>(chunks);
+        return value;
     }
 
     /**
@@ -102,16 +132,272 @@ public class TruncatedString {
         return build(maxSize, true);
     }
 
+    /**
+     * Returns the remembered result of building with the given size and unit, or builds and remembers it. As this
+     * instance is immutable, concurrent builds at worst compute the same result twice.
+     */
     private String build(final int maxSize, final boolean chunkOnChars) {
-        List<String> parts = getChunks();
+        BuildResult[] results = buildResults;
+        String value = findBuildResult(results, maxSize, chunkOnChars);
+        if (value != null) {
+            return value;
+        }
+        Truncation truncation = truncate(maxSize, chunkOnChars);
+        if (truncation == null) {
+            value = toString();
+        }
+        else {
+            StringBuilder builder = new StringBuilder();
+            try {
+                write(builder, truncation);
+            }
+            catch (IOException exception) {
+                throw new IllegalStateException("StringBuilder does not throw IOException", exception);
+            }
+            value = builder.toString();
+        }
+        BuildResult[] updated = new BuildResult[Math.min(results.length + 1, MEMO_SIZE)];
+        updated[0] = new BuildResult(maxSize, chunkOnChars, value);
+        System.arraycopy(results, 0, updated, 1, updated.length - 1);
+        buildResults = updated;
+        return value;
+    }
+
+    @CheckForNull
+    private static String findBuildResult(final BuildResult[] results, final int maxSize, final boolean chunkOnChars) {
+        for (BuildResult result : results) {
+            if (result.maxSize == maxSize && result.chunkOnChars == chunkOnChars) {
+                return result.value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Writes the string to the given sink such that it does not exceed maxSize in chars, including the truncation
+     * string. This is the same text {@link #buildByChars(int)} returns, but the chunks are appended directly, so that
+     * no intermediate string is created.
+     *
+     * @param out the sink to write to
+     * @param maxSize the maximum size of the written text
+     * @throws IOException if the sink throws an exception
+     */
+    public void writeTo(final Appendable out, final int maxSize) throws IOException {
+        write(out, maxSize, true);
+    }
+
+    /**
+     * Writes the UTF-8 encoding of the string to the given stream such that it does not exceed maxBytes, including
+     * the truncation string. These are the same bytes as the encoding of the text {@link #buildByBytes(int)}
+     * returns, but the chunks are encoded directly, so that no intermediate string is created. Like
+     * {@link String#getBytes(java.nio.charset.Charset)}, each unpaired surrogate is encoded as {@code ?}, even at the
+     * end of the text. The stream is not closed.
+     *
+     * @param out the stream to write to
+     * @param maxBytes the maximum number of bytes written
+     * @throws IOException if the stream throws an exception
+     */
+    public void writeUtf8To(final OutputStream out, final int maxBytes) throws IOException {
+        Utf8Encoder encoder = new Utf8Encoder(out);
+        write(encoder, maxBytes, false);
+        encoder.finish();
+    }
+
+    private void write(final Appendable out, final int maxSize, final boolean chunkOnChars) throws IOException {
+        String value = findBuildResult(buildResults, maxSize, chunkOnChars);
+        if (value != null) {
+            out.append(value);
+            return;
+        }
+        Truncation truncation = truncate(maxSize, chunkOnChars);
+        if (truncation == null) {
+            append(out, 0, 0, chunks.size(), 0);
+        }
+        else {
+            write(out, truncation);
+        }
+    }
+
+    private void write(final Appendable out, final Truncation truncation) throws IOException {
+        append(out, 0, 0, truncation.headChunk, truncation.headOffset);
+        out.append(truncationText);
+        append(out, truncation.tailChunk, truncation.tailOffset, chunks.size(), 0);
+    }
+
+    /**
+     * Finds the text to keep for the given size and unit.
+     *
+     * @return the text to keep, or {@code null} if no truncation is necessary
+     */
+    @CheckForNull
+    private Truncation truncate(final int maxSize, final boolean chunkOnChars) {
+        int truncationLength = chunkOnChars ? truncationText.length() : utf8Length(truncationText, 0, truncationText.length());
+        if (maxSize < truncationLength) {
+            throw new IllegalArgumentException("Maximum length is less than truncation text.");
+        }
+        long length = getLength(0, chunks.size(), chunkOnChars);
+        if (!forceTruncationText && !discarded && length <= maxSize) {
+            return null;
+        }
+        if (truncateMiddle) {
+            return truncateMiddle(maxSize - truncationLength, length, chunkOnChars);
+        }
+
+        // when filling partial chunks, the space for the truncation text is reserved upfront
+        Scanner scanner = new Scanner(fillPartialChunks ? maxSize - truncationLength : maxSize, chunkOnChars,
+                0, chunks.size(), discarded);
         if (truncateStart) {
-            Collections.reverse(parts);
+            scanner.scanBackward();
+        }
+        else {
+            scanner.scanForward();
         }
-        List<String> truncatedParts = parts.stream().collect(new Joiner(truncationText, maxSize, chunkOnChars, forceTruncationText));
+        if (!scanner.truncated && !forceTruncationText) {
+            return null;
+        }
+
+        int cutChunk;
+        int cutOffset;
+        if (fillPartialChunks) {
+            if (truncateStart) {
+                scanner.fillBackward();
+            }
+            else {
+                scanner.fillForward();
+            }
+            cutChunk = scanner.cutChunk;
+            cutOffset = scanner.cutOffset;
+        }
+        else {
+            // if the truncation text does not fit, the last segment added is dropped in favour of it
+            boolean dropLast = scanner.length + truncationLength > maxSize;
+            cutChunk = dropLast ? scanner.previousChunk : scanner.cutChunk;
+            cutOffset = dropLast ? scanner.previousOffset : scanner.cutOffset;
+        }
+
         if (truncateStart) {
-            Collections.reverse(truncatedParts);
+            return new Truncation(0, 0, cutChunk, cutOffset);
         }
-        return String.join("", truncatedParts);
+        return new Truncation(cutChunk, cutOffset, chunks.size(), 0);
+    }
+
+    /**
+     * Keeps up to {@link #headSize} of the start, then fills the remaining space with the end. Both ends are scanned
+     * from the outside in, so each chunk is visited at most once; when the builder discarded the middle, the scans
+     * stay on their side of the gap.
+     */
+    private Truncation truncateMiddle(final int maxSizeWithoutTruncation, final long length, final boolean chunkOnChars) {
+        Scanner head = new Scanner(Math.min(headSize, maxSizeWithoutTruncation), chunkOnChars,
+                0, discarded ? tailStart : chunks.size(), discarded);
+        head.scanForward();
+        if (fillPartialChunks) {
+            head.fillForward();
+        }
+        // the end never overlaps the start: they only meet if everything fits and the truncation text is forced
+        Scanner tail = new Scanner((int) Math.min(maxSizeWithoutTruncation - head.length, length - head.length),
+                chunkOnChars, discarded ? tailStart : 0, chunks.size(), discarded);
+        tail.scanBackward();
+        if (fillPartialChunks) {
+            tail.fillBackward();
+        }
+        return new Truncation(head.cutChunk, head.cutOffset, tail.cutChunk, tail.cutOffset);
+    }
+
+    private void append(final Appendable out, final int fromChunk, final int fromOffset,
+            final int toChunk, final int toOffset) throws IOException {
+        for (int i = fromChunk; i <= toChunk && i < chunks.size(); i++) {
+            CharSequence chunk = chunks.get(i);
+            int from = i == fromChunk ? fromOffset : 0;
+            int to = i == toChunk ? toOffset : chunk.length();
+            if (out instanceof Writer && chunk instanceof String) {
+                // Writer#append(CharSequence, int, int) copies the range first
+                ((Writer) out).write((String) chunk, from, to - from);
+            }
+            else {
+                out.append(chunk, from, to);
+            }
+        }
+    }
+
+    private long[] getByteOffsets() {
+        long[] offsets = byteOffsets;
+        if (offsets == null) {
+            offsets = new long[chunks.size() + 1];
+            for (int i = 0; i < chunks.size(); i++) {
+                CharSequence chunk = chunks.get(i);
+                offsets[i + 1] = offsets[i] + utf8Length(chunk, 0, chunk.length());
+            }
+            byteOffsets = offsets;
+        }
+        return offsets;
+    }
+
+    /**
+     * Returns the length of the chunks in the range {@code [fromChunk, toChunk)}.
+     */
+    private long getLength(final int fromChunk, final int toChunk, final boolean chunkOnChars) {
+        if (chunkOnChars) {
+            long length = 0;
+            for (int i = fromChunk; i < toChunk; i++) {
+                length += chunks.get(i).length();
+            }
+            return length;
+        }
+        long[] offsets = getByteOffsets();
+        return offsets[toChunk] - offsets[fromChunk];
+    }
+
+    private static long getLength(final CharSequence text, final int from, final int to, final boolean chunkOnChars) {
+        return chunkOnChars ? to - from : utf8Length(text, from, to);
+    }
+
+    private static int indexOfNewline(final CharSequence text, final int from) {
+        if (text instanceof String) {
+            return ((String) text).indexOf('\n', from);
+        }
+        for (int i = Math.max(from, 0); i < text.length(); i++) {
+            if (text.charAt(i) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int lastIndexOfNewline(final CharSequence text, final int from) {
+        if (text instanceof String) {
+            return ((String) text).lastIndexOf('\n', from);
+        }
+        for (int i = Math.min(from, text.length() - 1); i >= 0; i--) {
+            if (text.charAt(i) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Computes the number of bytes the UTF-8 encoding of the given range would take, without encoding it. Unpaired
+     * surrogates count as one byte, matching the replacement applied by {@link String#getBytes(java.nio.charset.Charset)}.
+     */
+    static int utf8Length(final CharSequence text, final int from, final int to) {
+        int length = to - from;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                continue;
+            }
+            if (c < 0x800) {
+                length++;
+            }
+            else if (!Character.isSurrogate(c)) {
+                length += 2;
+            }
+            else if (Character.isHighSurrogate(c) && i + 1 < to && Character.isLowSurrogate(text.charAt(i + 1))) {
+                length += 2;
+                i++;
+            }
+        }
+        return length;
     }
 
     /**
@@ -121,9 +407,18 @@ public class TruncatedString {
     public static class Builder {
         private String truncationText = "Output truncated.";
         private boolean truncateStart = false;
+        private boolean truncateMiddle = false;
+        private int headSize = 0;
         private boolean chunkOnNewlines = false;
+        private boolean fillPartialChunks = false;
         private boolean forceTruncationText = false;
-        private final List<String> chunks = new ArrayList<>();
+        private int maxSize = Integer.MAX_VALUE;
+        private final List<CharSequence> head = new ArrayList<>();
+        private long headLength = 0;
+        private final Deque<CharSequence> chunks = new ArrayDeque<>();
+        private long length = 0;
+        private boolean discarded = false;
+        private boolean discardedPartialLine = false;
 
         /**
          * Builds the {@link TruncatedString}.
@@ -131,7 +426,10 @@ public class TruncatedString {
          * @return the build {@link TruncatedString}.
          */
         public TruncatedString build() {
-            return new TruncatedString(chunks, truncationText, truncateStart, chunkOnNewlines, forceTruncationText);
+            List<CharSequence> allChunks = new ArrayList<>(head.size() + chunks.size());
+            allChunks.addAll(head);
+            allChunks.addAll(chunks);
+            return new TruncatedString(allChunks, this, head.size());
         }
 
         /**
@@ -141,10 +439,102 @@ public class TruncatedString {
          * @return this builder
          */
         public Builder addText(@NonNull final String text) {
-            this.chunks.add(Objects.requireNonNull(text));
+            return addText((CharSequence) text);
+        }
+
+        /**
+         * Adds a chunk of text to the builder, without copying it. Only the parts of the chunk that are part of a
+         * built string are copied, so a chunk may also be a {@link StringBuilder} or a sequence that renders its
+         * characters on demand. The chunk must not be modified afterwards.
+         *
+         * @param text the chunk of text to append to this builder
+         * @return this builder
+         */
+        public Builder addText(@NonNull final CharSequence text) {
+            Objects.requireNonNull(text);
+            if (truncateMiddle && headLength <= headSize) {
+                head.add(text);
+                headLength += text.length();
+                return this;
+            }
+            if (!truncateStart && !truncateMiddle && length > maxSize) {
+                // the retained text already overflows, so nothing added from now on can be part of the result
+                discarded = true;
+                return this;
+            }
+            this.chunks.addLast(text);
+            this.length += text.length();
+            discard();
             return this;
         }
 
+        /**
+         * Returns a collector that joins the chunks of a stream into a {@link TruncatedString} with the settings of
+         * this builder, as if they were added to a new builder with these settings. The chunks keep their encounter
+         * order even for parallel streams, and their UTF-8 lengths are computed while collecting, so that the work
+         * is spread over all threads. Neither the text added to this builder nor its maximum size apply, as all
+         * chunks are needed until the partial results have been combined.
+         *
+         * @return the collector
+         */
+        public Collector<CharSequence, ?, TruncatedString> collector() {
+            Builder settings = copySettings();
+            return Collector.of(Chunks::new, Chunks::add, Chunks::addAll, chunks -> chunks.build(settings));
+        }
+
+        private Builder copySettings() {
+            Builder settings = new Builder();
+            settings.truncationText = truncationText;
+            settings.truncateStart = truncateStart;
+            settings.truncateMiddle = truncateMiddle;
+            settings.headSize = headSize;
+            settings.chunkOnNewlines = chunkOnNewlines;
+            settings.fillPartialChunks = fillPartialChunks;
+            settings.forceTruncationText = forceTruncationText;
+            return settings;
+        }
+
+        /**
+         * Sets the maximum size the built string will be truncated to, in bytes or chars. This allows the builder to
+         * discard text that can never be part of the result: when truncating the end, text added after the retained
+         * text exceeds the maximum size is dropped; when truncating the start, the oldest chunks are evicted as soon
+         * as the newer ones exceed the maximum size; when truncating the middle, the same applies to the text after
+         * the start that is kept. Either way the memory held stays at roughly that size no matter
+         * how much text is added. Building with a larger size than this still reports the discarded text as
+         * truncated.
+         *
+         * @param maxSize the maximum size the built string will be truncated to
+         * @return this builder
+         */
+        @SuppressWarnings("HiddenField")
+        public Builder withMaxSize(final int maxSize) {
+            if (maxSize < 0) {
+                throw new IllegalArgumentException("Maximum size must not be negative.");
+            }
+            this.maxSize = maxSize;
+            discard();
+            return this;
+        }
+
+        /**
+         * Evicts the oldest chunks as long as the remaining ones still exceed the maximum size. As UTF-8 never needs
+         * fewer bytes than chars, measuring in chars keeps enough text for truncating by either unit.
+         */
+        private void discard() {
+            if (!truncateStart && !truncateMiddle) {
+                return;
+            }
+            while (!chunks.isEmpty() && length - chunks.getFirst().length() > maxSize) {
+                CharSequence evicted = chunks.removeFirst();
+                length -= evicted.length();
+                discarded = true;
+                if (evicted.length() > 0) {
+                    // the first line retained is only incomplete if the eviction did not end on a line boundary
+                    discardedPartialLine = evicted.charAt(evicted.length() - 1) != '\n';
+                }
+            }
+        }
+
         /**
          * Sets the truncation text.
          *
@@ -173,7 +563,42 @@ public class TruncatedString {
          * @return this builder
          */
         public Builder setTruncateStart() {
+            if (truncateMiddle) {
+                throw new IllegalStateException("Truncation of the middle has already been set.");
+            }
+            if (discarded && !truncateStart) {
+                throw new IllegalStateException("Text has already been discarded from the end.");
+            }
             this.truncateStart = true;
+            discard();
+            return this;
+        }
+
+        /**
+         * Sets truncator to remove excess text from the middle, keeping the start and the end. Up to the given head
+         * size of the start is kept, and the rest of the maximum size is filled with the end, so that for a build
+         * log both the command invoked and the failure are shown. Text added before this call is part of the start.
+         *
+         * @param headSize the maximum size of the start to keep, in the unit the string is built by
+         * @return this builder
+         */
+        @SuppressWarnings("HiddenField")
+        public Builder setTruncateMiddle(final int headSize) {
+            if (truncateStart) {
+                throw new IllegalStateException("Truncation of the start has already been set.");
+            }
+            if (discarded) {
+                throw new IllegalStateException("Text has already been discarded from the end.");
+            }
+            if (headSize < 0) {
+                throw new IllegalArgumentException("Head size must not be negative.");
+            }
+            this.truncateMiddle = true;
+            this.headSize = headSize;
+            this.head.addAll(chunks);
+            this.headLength += length;
+            this.chunks.clear();
+            this.length = 0;
             return this;
         }
 
@@ -186,84 +611,406 @@ public class TruncatedString {
             this.chunkOnNewlines = true;
             return this;
         }
+
+        /**
+         * Sets truncator to fill the space left by the chunk (or line) that overflows with as much of it as fits,
+         * rather than dropping it completely. The chunk is cut on a code point boundary, so that a single long chunk
+         * still yields a result of up to the maximum size.
+         *
+         * @return this builder
+         */
+        public Builder setFillPartialChunks() {
+            this.fillPartialChunks = true;
+            return this;
+        }
     }
 
-    private static class Joiner implements Collector<String, Joiner.Accumulator, List<String>> {
-        private final int maxLength;
-        private final String truncationText;
-        private final boolean forceTruncationText;
-        private final boolean chunkOnChars;
+    /**
+     * The text kept when truncating: the chunks before the head cut and those after the tail cut, with the truncation
+     * text in between. Cuts are positions given by a chunk index and an offset into that chunk.
+     */
+    private static final class Truncation {
+        private final int headChunk;
+        private final int headOffset;
+        private final int tailChunk;
+        private final int tailOffset;
 
-        Joiner(final String truncationText, final int maxLength, final boolean chunkOnChars, final boolean forceTruncationText) {
-            this.truncationText = truncationText;
-            this.maxLength = maxLength;
-            this.chunkOnChars = chunkOnChars;
-            this.forceTruncationText = forceTruncationText;
-            if (maxLength < getLength(truncationText)) {
-                throw new IllegalArgumentException("Maximum length is less than truncation text.");
-            }
+        Truncation(final int headChunk, final int headOffset, final int tailChunk, final int tailOffset) {
+            this.headChunk = headChunk;
+            this.headOffset = headOffset;
+            this.tailChunk = tailChunk;
+            this.tailOffset = tailOffset;
         }
+    }
 
-        private int getLength(final String text) {
-            return chunkOnChars ? text.length() : text.getBytes(StandardCharsets.UTF_8).length;
+    /**
+     * Encodes the appended text as UTF-8 to a stream. Unlike an {@link java.io.OutputStreamWriter}, which drops an
+     * unpaired high surrogate at the end of the text when it is flushed, an unpaired surrogate is always replaced, so
+     * the bytes are those of {@link String#getBytes(java.nio.charset.Charset)}.
+     */
+    private static final class Utf8Encoder implements Appendable {
+        private final OutputStream out;
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private final ByteBuffer bytes = ByteBuffer.allocate(8192);
+        /** A high surrogate at the end of the text appended so far, which may be paired by the next text. */
+        private char pendingHighSurrogate;
+
+        Utf8Encoder(final OutputStream out) {
+            this.out = out;
         }
 
         @Override
-        public Supplier<Joiner.Accumulator> supplier() {
-            return Accumulator::new;
+        public Appendable append(final CharSequence csq) throws IOException {
+            return append(csq, 0, csq.length());
         }
 
         @Override
-        public BiConsumer<Joiner.Accumulator, String> accumulator() {
-            return Accumulator::add;
+        public Appendable append(final CharSequence csq, final int start, final int end) throws IOException {
+            int from = start;
+            if (pendingHighSurrogate != 0 && from < end) {
+                char next = csq.charAt(from);
+                if (Character.isLowSurrogate(next)) {
+                    encode(CharBuffer.wrap(new char[] {pendingHighSurrogate, next}));
+                    from++;
+                }
+                else {
+                    out.write(encoder.replacement());
+                }
+                pendingHighSurrogate = 0;
+            }
+            CharBuffer chars = CharBuffer.wrap(csq, from, end);
+            encode(chars);
+            if (chars.hasRemaining()) {
+                // the encoder keeps a high surrogate at the end back for the low surrogate that may follow
+                pendingHighSurrogate = chars.get();
+            }
+            return this;
         }
 
         @Override
-        public BinaryOperator<Accumulator> combiner() {
-            return Accumulator::combine;
+        public Appendable append(final char c) throws IOException {
+            return append(String.valueOf(c));
         }
 
-        @Override
-        public Function<Accumulator, List<String>> finisher() {
-            return Accumulator::truncate;
+        private void encode(final CharBuffer chars) throws IOException {
+            while (encoder.encode(chars, bytes, false).isOverflow()) {
+                flushBytes();
+            }
+            flushBytes();
         }
 
-        @Override
-        public Set<Characteristics> characteristics() {
-            return Collections.emptySet();
+        private void flushBytes() throws IOException {
+            out.write(bytes.array(), 0, bytes.position());
+            bytes.clear();
         }
 
-        private class Accumulator {
-            private final List<String> chunks = new ArrayList<>();
-            private int length = 0;
-            private boolean truncated = false;
+        void finish() throws IOException {
+            if (pendingHighSurrogate != 0) {
+                out.write(encoder.replacement());
+                pendingHighSurrogate = 0;
+            }
+            out.flush();
+        }
+    }
 
-            Accumulator combine(final Accumulator other) {
-                other.chunks.forEach(this::add);
-                return this;
+    /**
+     * A string built with a maximum size in bytes or chars.
+     */
+    private static final class BuildResult {
+        private final int maxSize;
+        private final boolean chunkOnChars;
+        private final String value;
+
+        BuildResult(final int maxSize, final boolean chunkOnChars, final String value) {
+            this.maxSize = maxSize;
+            this.chunkOnChars = chunkOnChars;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Partial result of {@link Builder#collector()}: the chunks in encounter order and their UTF-8 lengths.
+     */
+    private static final class Chunks {
+        private final List<CharSequence> values = new ArrayList<>();
+        private int[] byteLengths = new int[16];
+
+        void add(final CharSequence chunk) {
+            Objects.requireNonNull(chunk);
+            ensureCapacity(values.size() + 1);
+            byteLengths[values.size()] = utf8Length(chunk, 0, chunk.length());
+            values.add(chunk);
+        }
+
+        Chunks addAll(final Chunks following) {
+            ensureCapacity(values.size() + following.values.size());
+            System.arraycopy(following.byteLengths, 0, byteLengths, values.size(), following.values.size());
+            values.addAll(following.values);
+            return this;
+        }
+
+        private void ensureCapacity(final int capacity) {
+            if (capacity > byteLengths.length) {
+                byteLengths = Arrays.copyOf(byteLengths, Math.max(capacity, byteLengths.length * 2));
             }
+        }
 
-            void add(final String chunk) {
-                if (truncated) {
-                    return;
+        TruncatedString build(final Builder settings) {
+            long[] offsets = new long[values.size() + 1];
+            for (int i = 0; i < values.size(); i++) {
+                offsets[i + 1] = offsets[i] + byteLengths[i];
+            }
+            TruncatedString truncatedString = new TruncatedString(values, settings, 0);
+            truncatedString.byteOffsets = offsets;
+            return truncatedString;
+        }
+    }
+
+    /**
+     * Walks the chunks once, segment by segment, without copying them. Segments are either the chunks themselves or,
+     * when chunking on newlines, the lines of the joined chunks; lines may span several chunks. The walk stops at the
+     * first segment that would overflow the maximum length, remembering the position (chunk index and offset) after
+     * the last accepted segment and the one before it. Chunks that fit completely are skipped using the cached chunk
+     * lengths, so that only the chunk containing the cut needs to be measured line by line.
+     */
+    private final class Scanner {
+        private final int maxLength;
+        private final boolean chunkOnChars;
+        private final int fromChunk;
+        private final int toChunk;
+        private final boolean incomplete;
+
+        private long length;
+        private boolean truncated;
+        private int cutChunk;
+        private int cutOffset;
+        private int previousChunk;
+        private int previousOffset;
+
+        /**
+         * Creates a scanner for the chunks in the range {@code [fromChunk, toChunk)}.
+         *
+         * @param incomplete whether text has been discarded beyond the end of the range that is scanned towards
+         */
+        Scanner(final int maxLength, final boolean chunkOnChars, final int fromChunk, final int toChunk,
+                final boolean incomplete) {
+            this.maxLength = maxLength;
+            this.chunkOnChars = chunkOnChars;
+            this.fromChunk = fromChunk;
+            this.toChunk = toChunk;
+            this.incomplete = incomplete;
+        }
+
+        void scanForward() {
+            cutChunk = fromChunk;
+            cutOffset = 0;
+            previousChunk = cutChunk;
+            previousOffset = 0;
+            if (!chunkOnNewlines) {
+                for (int i = fromChunk; i < toChunk; i++) {
+                    if (!accept(getLength(i, i + 1, chunkOnChars), i + 1, 0)) {
+                        return;
+                    }
+                }
+                truncated |= incomplete;
+                return;
+            }
+
+            long pending = 0;
+            for (int i = fromChunk; i < toChunk; i++) {
+                CharSequence chunk = chunks.get(i);
+                long chunkLength = getLength(i, i + 1, chunkOnChars);
+                if (length + pending + chunkLength <= maxLength) {
+                    int last = lastIndexOfNewline(chunk, chunk.length() - 1);
+                    if (last < 0) {
+                        pending += chunkLength;
+                    }
+                    else {
+                        long tail = getLength(chunk, last + 1, chunk.length(), chunkOnChars);
+                        int secondLast = lastIndexOfNewline(chunk, last - 1);
+                        moveCut(secondLast < 0 ? cutChunk : i, secondLast < 0 ? cutOffset : secondLast + 1, i, last + 1);
+                        length += pending + chunkLength - tail;
+                        pending = tail;
+                    }
+                    continue;
                 }
-                if (length + getLength(chunk) > maxLength) {
-                    truncated = true;
-                    return;
+
+                int from = 0;
+                int newline = indexOfNewline(chunk, 0);
+                while (newline >= 0) {
+                    pending += getLength(chunk, from, newline + 1, chunkOnChars);
+                    if (!accept(pending, i, newline + 1)) {
+                        return;
+                    }
+                    pending = 0;
+                    from = newline + 1;
+                    newline = indexOfNewline(chunk, from);
+                }
+                pending += getLength(chunk, from, chunk.length(), chunkOnChars);
+            }
+            if (incomplete) {
+                // the last line is incomplete, as its end has been discarded
+                truncated = true;
+            }
+            else if (pending > 0) {
+                accept(pending, toChunk, 0);
+            }
+        }
+
+        void scanBackward() {
+            cutChunk = toChunk;
+            cutOffset = 0;
+            previousChunk = cutChunk;
+            previousOffset = 0;
+            if (!chunkOnNewlines) {
+                for (int i = toChunk - 1; i >= fromChunk; i--) {
+                    if (!accept(getLength(i, i + 1, chunkOnChars), i, 0)) {
+                        return;
+                    }
                 }
-                chunks.add(chunk);
-                length += getLength(chunk);
+                truncated |= incomplete;
+                return;
             }
 
-            List<String> truncate() {
-                if (truncated || forceTruncationText) {
-                    if (length + getLength(truncationText) > maxLength) {
-                        chunks.remove(chunks.size() - 1);
+            long pending = 0;
+            for (int i = toChunk - 1; i >= fromChunk; i--) {
+                CharSequence chunk = chunks.get(i);
+                long chunkLength = getLength(i, i + 1, chunkOnChars);
+                if (length + pending + chunkLength <= maxLength) {
+                    int first = indexOfNewline(chunk, 0);
+                    if (first < 0) {
+                        pending += chunkLength;
                     }
-                    chunks.add(truncationText);
+                    else {
+                        long head = getLength(chunk, 0, first + 1, chunkOnChars);
+                        int second = indexOfNewline(chunk, first + 1);
+                        moveCut(second < 0 ? cutChunk : i, second < 0 ? cutOffset : second + 1, i, first + 1);
+                        length += pending + chunkLength - head;
+                        pending = head;
+                    }
+                    continue;
+                }
+
+                int to = chunk.length();
+                int newline = lastIndexOfNewline(chunk, to - 1);
+                while (newline >= 0) {
+                    pending += getLength(chunk, newline + 1, to, chunkOnChars);
+                    if (!accept(pending, i, newline + 1)) {
+                        return;
+                    }
+                    pending = 0;
+                    to = newline + 1;
+                    newline = lastIndexOfNewline(chunk, newline - 1);
+                }
+                pending += getLength(chunk, 0, to, chunkOnChars);
+            }
+            if (incomplete) {
+                truncated = true;
+            }
+            // the first line is incomplete only if the builder discarded the start of it
+            if (!incomplete || !discardedPartialLine) {
+                accept(pending, fromChunk, 0);
+            }
+        }
+
+        /**
+         * Moves the cut forward by as many whole code points of the following text as fit, so that the text before
+         * the cut fills the maximum length. Surrogate pairs are never split, not even if they span two chunks and
+         * the first chunk has been accepted as a whole.
+         */
+        void fillForward() {
+            int chunk = cutChunk;
+            int offset = cutOffset;
+            while (chunk < toChunk) {
+                CharSequence text = chunks.get(chunk);
+                if (offset == text.length()) {
+                    chunk++;
+                    offset = 0;
+                    continue;
                 }
-                return chunks;
+                int end = Character.isHighSurrogate(text.charAt(offset)) && offset + 1 < text.length()
+                        && Character.isLowSurrogate(text.charAt(offset + 1)) ? offset + 2 : offset + 1;
+                long codePointLength = getLength(text, offset, end, chunkOnChars);
+                if (length + codePointLength > maxLength) {
+                    break;
+                }
+                length += codePointLength;
+                offset = end;
+            }
+            if (offset == 0 && splitsSurrogatePair(chunk)) {
+                // both halves count as one unit on their own
+                chunk--;
+                offset = chunks.get(chunk).length() - 1;
+                length--;
             }
+            cutChunk = chunk;
+            cutOffset = offset;
+        }
+
+        /**
+         * Moves the cut backward by as many whole code points of the preceding text as fit, so that the text after
+         * the cut fills the maximum length. Surrogate pairs are never split, not even if they span two chunks and
+         * the second chunk has been accepted as a whole.
+         */
+        void fillBackward() {
+            int chunk = cutChunk;
+            int offset = cutOffset;
+            while (chunk > fromChunk || offset > 0) {
+                if (offset == 0) {
+                    chunk--;
+                    offset = chunks.get(chunk).length();
+                    continue;
+                }
+                CharSequence text = chunks.get(chunk);
+                int start = Character.isLowSurrogate(text.charAt(offset - 1)) && offset > 1
+                        && Character.isHighSurrogate(text.charAt(offset - 2)) ? offset - 2 : offset - 1;
+                long codePointLength = getLength(text, start, offset, chunkOnChars);
+                if (length + codePointLength > maxLength) {
+                    break;
+                }
+                length += codePointLength;
+                offset = start;
+            }
+            if (chunk < toChunk && offset == chunks.get(chunk).length()) {
+                chunk++;
+                offset = 0;
+            }
+            if (offset == 0 && splitsSurrogatePair(chunk)) {
+                // both halves count as one unit on their own
+                offset = 1;
+                length--;
+            }
+            cutChunk = chunk;
+            cutOffset = offset;
+        }
+
+        private boolean splitsSurrogatePair(final int chunk) {
+            if (chunk <= fromChunk || chunk >= toChunk) {
+                return false;
+            }
+            CharSequence previous = chunks.get(chunk - 1);
+            CharSequence next = chunks.get(chunk);
+            return previous.length() > 0 && Character.isHighSurrogate(previous.charAt(previous.length() - 1))
+                    && next.length() > 0 && Character.isLowSurrogate(next.charAt(0));
+        }
+
+        private boolean accept(final long segmentLength, final int chunk, final int offset) {
+            if (length + segmentLength > maxLength) {
+                truncated = true;
+                return false;
+            }
+            length += segmentLength;
+            moveCut(cutChunk, cutOffset, chunk, offset);
+            return true;
+        }
+
+        private void moveCut(final int fromChunk, final int fromOffset, final int toChunk, final int toOffset) {
+            previousChunk = fromChunk;
+            previousOffset = fromOffset;
+            cutChunk = toChunk;
+            cutOffset = toOffset;
         }
     }
 }
@@ -1,11 +1,19 @@
 package io.jenkins.plugins.checks.status;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Optional;
 import java.util.logging.Logger;
 
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import hudson.console.AnnotatedLargeText;
+import hudson.console.LineTransformationOutputStream;
 import hudson.model.Result;
 import hudson.model.Run;
 import io.jenkins.plugins.checks.api.ChecksOutput;
+import io.jenkins.plugins.checks.api.TruncatedString;
+import jenkins.util.SystemProperties;
 
 /**
  * Base class for build analyzers that extract output from Jenkins builds.
@@ -16,13 +24,21 @@ abstract class AbstractRunAnalyzer {
     protected static final String TRUNCATED_MESSAGE_BUILD_LOG = "Build log truncated.\n\n";
     protected static final int MAX_MESSAGE_SIZE_TO_CHECKS_API = 65_535;
     protected static final String LOG_DETAILS_TEMPLATE = "<details><summary>Build Log</summary>%n%n```%n%s%n```%n%n</details>";
+    /**
+     * Whether the line of a build log that does not fit completely is cut rather than dropped, so that a single long
+     * line still fills the output. By default, only complete lines are shown.
+     */
+    private static final boolean FILL_PARTIAL_LINES = SystemProperties.getBoolean(
+            AbstractRunAnalyzer.class.getName() + ".fillPartialLines");
 
     private final Run<?, ?> run;
     private final boolean suppressLogs;
+    private final int logHeadSize;
 
-    protected AbstractRunAnalyzer(final Run<?, ?> run, final boolean suppressLogs) {
+    protected AbstractRunAnalyzer(final Run<?, ?> run, final boolean suppressLogs, final int logHeadSize) {
         this.run = run;
         this.suppressLogs = suppressLogs;
+        this.logHeadSize = logHeadSize;
     }
 
     /**
@@ -43,6 +59,150 @@ abstract class AbstractRunAnalyzer {
         return suppressLogs;
     }
 
+    /**
+     * Returns the size of the start of a build log to keep when it has to be truncated.
+     *
+     * @return the size of the start of a build log to keep, 0 to only keep its end
+     */
+    protected int getLogHeadSize() {
+        return logHeadSize;
+    }
+
+    /**
+     * Creates a builder for a build log, which keeps the end of the log, or its start and end if a log head size is
+     * configured, and never retains much more than the given size. A line that does not fit completely is only cut
+     * if {@link #FILL_PARTIAL_LINES} is set.
+     *
+     * @param maxSize
+     *         the size the log will be truncated to
+     * @return the builder for the log
+     */
+    protected TruncatedString.Builder createLogBuilder(final int maxSize) {
+        TruncatedString.Builder builder = new TruncatedString.Builder()
+                .setChunkOnNewlines()
+                .withMaxSize(maxSize)
+                .withTruncationText(TRUNCATED_MESSAGE_BUILD_LOG);
+        if (FILL_PARTIAL_LINES) {
+            builder.setFillPartialChunks();
+        }
+        return logHeadSize > 0 ? builder.setTruncateMiddle(logHeadSize) : builder.setTruncateStart();
+    }
+
+    /**
+     * Reads the part of a log that can be published into a builder created by {@link #createLogBuilder(int)}. When
+     * only the end of the log is kept, only the end is read: starting with a window of twice the given size from the
+     * end of the log, the window is enlarged until enough text is left after stripping or the start is reached. This
+     * way the cost does not depend on the size of the log.
+     *
+     * @param logText
+     *         the log to read
+     * @param maxSize
+     *         the size the log will be truncated to
+     * @return the builder with the log, or {@code null} if the log has no text
+     * @throws IOException
+     *         if the log cannot be read
+     */
+    @CheckForNull
+    protected TruncatedString.Builder readLog(final AnnotatedLargeText<?> logText, final int maxSize)
+            throws IOException {
+        if (logHeadSize > 0) {
+            // the start of the log is kept as well, so read all of it
+            TruncatedString.Builder builder = createLogBuilder(maxSize);
+            return addLog(logText, builder) == 0 ? null : builder;
+        }
+
+        long logLength = logText.length();
+        long window = 2L * maxSize;
+        while (true) {
+            long start = Math.max(0, logLength - window);
+            TruncatedString.Builder builder = createLogBuilder(maxSize);
+            long added = addLog(logText, start, builder);
+            if (start == 0) {
+                return added == 0 ? null : builder;
+            }
+            if (added >= maxSize) {
+                return builder.setForceTruncationText();
+            }
+            window *= 4;
+        }
+    }
+
+    /**
+     * Adds a log line by line to the builder, stripping ANSI color codes and console notes while it is read.
+     *
+     * @param logText
+     *         the log to add
+     * @param builder
+     *         the builder to add the lines to
+     * @return the number of bytes of text that have been added
+     * @throws IOException
+     *         if the log cannot be read
+     */
+    protected static long addLog(final AnnotatedLargeText<?> logText, final TruncatedString.Builder builder)
+            throws IOException {
+        return addLog(logText, 0, builder);
+    }
+
+    /**
+     * Adds a log from the given offset line by line to the builder, stripping ANSI color codes and console notes
+     * while it is read. If the offset is not the start of the log, the first line is skipped, as it may start in the
+     * middle of a line, a console note or a character.
+     */
+    private static long addLog(final AnnotatedLargeText<?> logText, final long start,
+            final TruncatedString.Builder builder) throws IOException {
+        LogLines lines = new LogLines(builder, start > 0);
+        try (OutputStream out = new AnsiStrippingOutputStream(lines)) {
+            logText.writeLogTo(start, out);
+        }
+        return lines.added;
+    }
+
+    /**
+     * Creates a stream that adds the text written to it line by line to the builder, stripping ANSI color codes and
+     * console notes. The last line is added when the stream is closed.
+     *
+     * @param builder
+     *         the builder to add the lines to
+     * @return the stream
+     */
+    protected static OutputStream createLogStream(final TruncatedString.Builder builder) {
+        return new AnsiStrippingOutputStream(new LogLines(builder, false));
+    }
+
+    /**
+     * Adds the lines written to it to a builder.
+     */
+    private static class LogLines extends LineTransformationOutputStream {
+        private final TruncatedString.Builder builder;
+        private boolean skipLine;
+        private long added = 0;
+
+        LogLines(final TruncatedString.Builder builder, final boolean skipLine) {
+            this.builder = builder;
+            this.skipLine = skipLine;
+        }
+
+        @Override
+        protected void eol(final byte[] b, final int len) {
+            if (skipLine) {
+                skipLine = false;
+                return;
+            }
+            int end = len;
+            boolean newline = end > 0 && b[end - 1] == '\n';
+            if (newline) {
+                end--;
+            }
+            // like Run#getLog, which reads the lines of logs written with CRLF line breaks as well
+            if (end > 0 && b[end - 1] == '\r') {
+                end--;
+            }
+            String line = new String(b, 0, end, StandardCharsets.UTF_8);
+            builder.addText(newline ? line + '\n' : line);
+            added += newline ? end + 1 : end;
+        }
+    }
+
     /**
      * Extracts output from the build.
      *
@@ -63,6 +63,20 @@ public abstract class AbstractStatusChecksProperties implements ExtensionPoint {
         return false;
     }
 
+    /**
+     * Returns the size of the start of a build log to keep in the checks output when the log has to be truncated. If
+     * positive, the middle of the log is elided instead of its start, so that both the command invoked and the failure
+     * are shown; the default is 0, which only keeps the end of the log.
+     *
+     * @param job
+     *         A jenkins job.
+     *
+     * @return the size in bytes of the start of a build log to keep
+     */
+    public int getLogHeadSize(final Job<?, ?> job) {
+        return 0;
+    }
+
     /**
      * Returns whether to suppress progress updates from the {@link io.jenkins.plugins.checks.status.FlowExecutionAnalyzer}.
      * Queued, Checkout and Completed will still run but not 'onNewHead'
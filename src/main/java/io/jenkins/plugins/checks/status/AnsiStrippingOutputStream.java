@@ -0,0 +1,176 @@
+package io.jenkins.plugins.checks.status;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Output stream that strips ANSI color codes ({@code ESC [ <digits and semicolons> m}) and Jenkins console notes
+ * from the bytes written to it, byte by byte, without buffering more than an escape sequence. As escape sequences
+ * only consist of ASCII characters, which never occur within the UTF-8 encoding of other characters, the stream
+ * works on encoded text and can be put in front of any other stream, e.g. one that splits the text into lines.
+ */
+class AnsiStrippingOutputStream extends FilterOutputStream {
+    private static final int ESCAPE = 0x1B;
+    /** What follows the {@code ESC [ 8 m} preamble of a console note. */
+    private static final byte[] NOTE_START = "ha:".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NOTE_END = "\u001B[0m".getBytes(StandardCharsets.US_ASCII);
+    /** Longer sequences are not color codes, so they are kept as they are rather than buffered. */
+    private static final int MAX_SEQUENCE_LENGTH = 64;
+
+    private enum State { TEXT, ESCAPE, SEQUENCE, NOTE_START, NOTE }
+
+    private State state = State.TEXT;
+    private final byte[] pending = new byte[MAX_SEQUENCE_LENGTH];
+    private int pendingLength = 0;
+    private int matched = 0;
+
+    AnsiStrippingOutputStream(final OutputStream out) {
+        super(out);
+    }
+
+    /**
+     * Strips ANSI color codes and console notes from the given text. Text without any escape character is returned
+     * as it is, without copying it.
+     *
+     * @param text
+     *         the text to strip
+     * @return the text without color codes and console notes
+     */
+    static String strip(final String text) {
+        if (text.indexOf(ESCAPE) < 0) {
+            return text;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(text.length());
+        try (OutputStream out = new AnsiStrippingOutputStream(bytes)) {
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+        catch (IOException exception) {
+            throw new IllegalStateException("ByteArrayOutputStream does not throw IOException", exception);
+        }
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        process(b & 0xFF);
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+        int end = off + len;
+        int i = off;
+        while (i < end) {
+            if (state == State.TEXT) {
+                // copy the text up to the next escape character at once
+                int start = i;
+                while (i < end && b[i] != ESCAPE) {
+                    i++;
+                }
+                if (i > start) {
+                    out.write(b, start, i - start);
+                }
+                if (i == end) {
+                    break;
+                }
+            }
+            process(b[i] & 0xFF);
+            i++;
+        }
+    }
+
+    private void process(final int b) throws IOException {
+        switch (state) {
+            case TEXT:
+                if (b == ESCAPE) {
+                    append(b);
+                    state = State.ESCAPE;
+                }
+                else {
+                    out.write(b);
+                }
+                break;
+            case ESCAPE:
+                if (b == '[') {
+                    append(b);
+                    state = State.SEQUENCE;
+                }
+                else {
+                    reject(b);
+                }
+                break;
+            case SEQUENCE:
+                if (b == 'm') {
+                    // ESC [ 8 m hides the text that follows, which is the encoded note if it starts with "ha:"
+                    boolean preamble = pendingLength == 3 && pending[2] == '8';
+                    pendingLength = 0;
+                    matched = 0;
+                    state = preamble ? State.NOTE_START : State.TEXT;
+                }
+                else if ((b == ';' || (b >= '0' && b <= '9')) && pendingLength < MAX_SEQUENCE_LENGTH) {
+                    append(b);
+                }
+                else {
+                    reject(b);
+                }
+                break;
+            case NOTE_START:
+                if (b == NOTE_START[matched]) {
+                    append(b);
+                    matched++;
+                    if (matched == NOTE_START.length) {
+                        pendingLength = 0;
+                        matched = 0;
+                        state = State.NOTE;
+                    }
+                }
+                else {
+                    reject(b);
+                }
+                break;
+            case NOTE:
+                if (b == NOTE_END[matched]) {
+                    matched++;
+                    if (matched == NOTE_END.length) {
+                        matched = 0;
+                        state = State.TEXT;
+                    }
+                }
+                else {
+                    matched = b == ESCAPE ? 1 : 0;
+                }
+                break;
+            default:
+                throw new IllegalStateException("Unsupported state: " + state);
+        }
+    }
+
+    private void append(final int b) {
+        pending[pendingLength++] = (byte) b;
+    }
+
+    /**
+     * Writes the pending bytes as they are, as they turned out not to be part of an escape sequence, and processes
+     * the byte that did not match as text.
+     */
+    private void reject(final int b) throws IOException {
+        writePending();
+        process(b);
+    }
+
+    private void writePending() throws IOException {
+        out.write(pending, 0, pendingLength);
+        pendingLength = 0;
+        state = State.TEXT;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (state != State.NOTE) {
+            writePending();
+        }
+        super.close();
+    }
+}
@@ -0,0 +1,82 @@
+package io.jenkins.plugins.checks.status;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+import hudson.console.LineTransformationOutputStream;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+
+/**
+ * The listener of the publishers of a run whose checks are published by the workers of the publish queue. The lines
+ * the publishers log are written to the build log as long as the log of the run is written, and to the system log
+ * once the run has completed and its listener may have been closed.
+ *
+ * <p>
+ * Publishers usually fetch the logger of their listener once when they are created, so the logger itself decides
+ * where each line goes rather than {@link #getLogger()}.
+ * </p>
+ */
+@SuppressFBWarnings(value = "SE_BAD_FIELD", justification = "only used on the controller, never sent to agents")
+final class BuildLogListener implements TaskListener {
+    private static final long serialVersionUID = 1L;
+    private static final Logger LOGGER = Logger.getLogger(BuildLogListener.class.getName());
+
+    private final PrintStream logger;
+
+    /**
+     * Creates a listener that writes to the given listener of the run while the log of the run is written.
+     *
+     * @param run
+     *         the run
+     * @param listener
+     *         the listener of the run, {@code null} if the run has no listener
+     */
+    BuildLogListener(final Run<?, ?> run, @CheckForNull final TaskListener listener) {
+        Charset charset = run.getCharset();
+        logger = new PrintStream(new BuildLogStream(run, listener == null ? null : listener.getLogger(), charset),
+                true, charset);
+    }
+
+    @NonNull
+    @Override
+    public PrintStream getLogger() {
+        return logger;
+    }
+
+    /**
+     * Writes each line to the build log while it is written, and to the system log afterwards.
+     */
+    private static final class BuildLogStream extends LineTransformationOutputStream {
+        private final Run<?, ?> run;
+        @CheckForNull
+        private final PrintStream buildLog;
+        private final Charset charset;
+
+        BuildLogStream(final Run<?, ?> run, @CheckForNull final PrintStream buildLog, final Charset charset) {
+            super();
+            this.run = run;
+            this.buildLog = buildLog;
+            this.charset = charset;
+        }
+
+        @Override
+        protected void eol(final byte[] b, final int len) throws IOException {
+            if (buildLog != null && run.isLogUpdated()) {
+                buildLog.write(b, 0, len);
+                buildLog.flush();
+            }
+            else {
+                String line = trimEOL(new String(b, 0, len, charset));
+                LOGGER.log(Level.INFO, () -> run + ": " + line);
+            }
+        }
+    }
+}
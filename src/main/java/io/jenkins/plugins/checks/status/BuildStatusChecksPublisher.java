@@ -2,24 +2,37 @@ package io.jenkins.plugins.checks.status;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Stream;
 
 import edu.umd.cs.findbugs.annotations.CheckForNull;
-import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
 import org.jenkinsci.plugins.workflow.actions.LabelAction;
 import org.jenkinsci.plugins.workflow.flow.FlowExecution;
 import org.jenkinsci.plugins.workflow.flow.FlowExecutionOwner;
 import org.jenkinsci.plugins.workflow.flow.GraphListener;
+import org.jenkinsci.plugins.workflow.graph.FlowEndNode;
 import org.jenkinsci.plugins.workflow.graph.FlowNode;
 import hudson.Extension;
+import hudson.ExtensionList;
+import hudson.ExtensionListListener;
 import hudson.FilePath;
+import hudson.init.InitMilestone;
+import hudson.init.Initializer;
 import hudson.model.Computer;
 import hudson.model.FreeStyleBuild;
 import hudson.model.Job;
+import hudson.model.PeriodicWork;
 import hudson.model.Queue;
 import hudson.model.Result;
 import hudson.model.Run;
@@ -29,14 +42,23 @@ import hudson.model.listeners.SCMListener;
 import hudson.model.queue.QueueListener;
 import hudson.scm.SCM;
 import hudson.scm.SCMRevisionState;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
 
 import io.jenkins.plugins.checks.api.ChecksConclusion;
+import io.jenkins.plugins.checks.api.ChecksDetails;
 import io.jenkins.plugins.checks.api.ChecksDetails.ChecksDetailsBuilder;
 import io.jenkins.plugins.checks.api.ChecksOutput;
 import io.jenkins.plugins.checks.api.ChecksPublisher;
+import io.jenkins.plugins.checks.api.ChecksPublisher.NullChecksPublisher;
 import io.jenkins.plugins.checks.api.ChecksPublisherFactory;
+import io.jenkins.plugins.checks.api.ChecksPublishResult;
 import io.jenkins.plugins.checks.api.ChecksStatus;
+import io.jenkins.plugins.checks.status.PublishOutbox.PendingCheck;
 import io.jenkins.plugins.util.JenkinsFacade;
+import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
+import jenkins.util.Timer;
 
 /**
  * A publisher which publishes different statuses through the checks API based on the stage of the {@link Queue.Item}
@@ -51,9 +73,255 @@ public final class BuildStatusChecksPublisher {
 
     private static final JenkinsFacade JENKINS = new JenkinsFacade();
     private static final AbstractStatusChecksProperties DEFAULT_PROPERTIES = new DefaultStatusCheckProperties();
+    /**
+     * The milliseconds progress updates of a run are coalesced for, only the latest of them is published. By default,
+     * each update is published immediately.
+     */
+    private static final int PROGRESS_UPDATE_WINDOW = SystemProperties.getInteger(
+            BuildStatusChecksPublisher.class.getName() + ".progressUpdateWindow", 0);
+    private static final ProgressUpdateDebouncer PROGRESS_UPDATES
+            = new ProgressUpdateDebouncer(PROGRESS_UPDATE_WINDOW, Timer::get);
+    /** The number of threads publishing the checks, 0 to publish them on the threads reporting the build status. */
+    private static final int PUBLISH_THREADS = SystemProperties.getInteger(
+            BuildStatusChecksPublisher.class.getName() + ".publishThreads", 2);
+    /** The maximum number of checks waiting to be published, before the reporting threads publish them themselves. */
+    private static final int PUBLISH_QUEUE_CAPACITY = SystemProperties.getInteger(
+            BuildStatusChecksPublisher.class.getName() + ".publishQueueCapacity", 1000);
+    private static final PublishQueue PUBLISH_QUEUE = new PublishQueue(PUBLISH_QUEUE_CAPACITY, createPublishers());
+    /**
+     * Whether a progress update of a run that waits in the publish queue is replaced by the next one, rather than
+     * publishing both. By default, each update is published.
+     */
+    private static final boolean COALESCE_PROGRESS_UPDATES = SystemProperties.getBoolean(
+            BuildStatusChecksPublisher.class.getName() + ".coalesceProgressUpdates");
+    private static final CoalescingChecksPublisher.PendingChecks PENDING_CHECKS
+            = new CoalescingChecksPublisher.PendingChecks();
+    /** The milliseconds between two logs of the statistics of the publish queue. */
+    private static final long STATISTICS_PERIOD = SystemProperties.getLong(
+            BuildStatusChecksPublisher.class.getName() + ".statisticsPeriod", TimeUnit.MINUTES.toMillis(10));
+    /** The number of times a completed check whose publisher reports a failure is published again. */
+    private static final int COMPLETED_RETRIES = SystemProperties.getInteger(
+            BuildStatusChecksPublisher.class.getName() + ".completedRetries", 3);
+    /** The seconds before a failed completed check is published again, doubled with each retry. */
+    private static final long COMPLETED_RETRY_DELAY = SystemProperties.getLong(
+            BuildStatusChecksPublisher.class.getName() + ".completedRetryDelay", 30L);
+    /** The number of delivered checks before the outbox journal is compacted. */
+    private static final int OUTBOX_COMPACTION_THRESHOLD = SystemProperties.getInteger(
+            BuildStatusChecksPublisher.class.getName() + ".outboxCompactionThreshold", 1024);
+    /** The completed checks that have not been published yet, {@code null} if the journal cannot be opened. */
+    @CheckForNull
+    private static volatile PublishOutbox outbox;
+
+    @SuppressWarnings("PMD.DoNotUseThreads")
+    private static Executor createPublishers() {
+        if (PUBLISH_THREADS <= 0) {
+            return Runnable::run;
+        }
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(PUBLISH_THREADS, PUBLISH_THREADS,
+                60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                new NamingThreadFactory(new DaemonThreadFactory(), "BuildStatusChecksPublisher publisher"));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Submits a check to the publish queue. The checks of a job with the same name are published in the order they
+     * are submitted, so that e.g. the "queued" check never overwrites the "in progress" check of the run.
+     */
+    private static void submit(final Job<?, ?> job, final ChecksPublisher publisher, final ChecksStatus status,
+            final ChecksConclusion conclusion, final String name, final Supplier<ChecksOutput> output) {
+        submit(job, publisher, name, () -> publish(publisher, status, conclusion, name, output.get()));
+    }
+
+    private static void submit(final Job<?, ?> job, final ChecksPublisher publisher, final String name,
+            final Runnable publish) {
+        if (publisher instanceof NullChecksPublisher) {
+            // there is no platform to wait for
+            publish.run();
+        }
+        else {
+            submit(job, name, publish);
+        }
+    }
+
+    private static void submit(final Job<?, ?> job, final String name, final Runnable publish) {
+        PUBLISH_QUEUE.submit(job.getFullName() + ':' + name, publish);
+    }
+
+    /**
+     * Submits a "queued" check without ever publishing it on the calling thread, which holds the lock of the Jenkins
+     * queue. Without publishing threads, the check is published by a remoting thread; if the publish queue is full,
+     * the check is dropped, as the "in progress" check of the run follows soon.
+     */
+    private static void submitQueued(final Job<?, ?> job, final String name, final Runnable publish) {
+        if (PUBLISH_THREADS <= 0) {
+            Computer.threadPoolForRemoting.submit(publish);
+        }
+        else if (!PUBLISH_QUEUE.trySubmit(job.getFullName() + ':' + name, publish)) {
+            LOGGER.log(Level.FINE, () -> String.format("Publish queue is full, dropped the queued check '%s' of %s",
+                    name, job.getFullName()));
+        }
+    }
+
+    /**
+     * Creates the publisher of a run for checks that are published by the workers of the publish queue. The listener
+     * of the run may have been closed by the time a worker publishes, so the publisher logs to the build log only
+     * while it is written and to the system log afterwards, see {@link BuildLogListener}.
+     */
+    private static ChecksPublisher createQueuedPublisher(final Run<?, ?> run,
+            @CheckForNull final TaskListener listener) {
+        return ChecksPublisherFactory.fromRun(run, new BuildLogListener(run, listener));
+    }
+
+    /**
+     * Submits an "in progress" check of a run to the publish queue, replacing the check of the run that still waits if
+     * progress updates are coalesced.
+     */
+    private static void submitProgress(final Run<?, ?> run, final ChecksPublisher publisher, final String name,
+            @CheckForNull final ChecksOutput output) {
+        Job<?, ?> job = run.getParent();
+        if (COALESCE_PROGRESS_UPDATES) {
+            publish(new CoalescingChecksPublisher(publisher, run.getExternalizableId(),
+                            update -> submit(job, publisher, name, update), PENDING_CHECKS),
+                    ChecksStatus.IN_PROGRESS, ChecksConclusion.NONE, name, output);
+        }
+        else {
+            submit(job, publisher, ChecksStatus.IN_PROGRESS, ChecksConclusion.NONE, name, () -> output);
+        }
+    }
+
+    /**
+     * Submits the "completed" check of a run to the publish queue. The check is removed from the outbox once the
+     * publisher reports that it has been published. If it reports a failure, the check is submitted again after a
+     * delay, a few times; a check that still could not be published stays in the outbox until the next restart.
+     */
+    private static void submitCompleted(final Run<?, ?> run, final ChecksPublisher publisher, final String name,
+            final ChecksConclusion conclusion, @CheckForNull final PendingCheck check) {
+        submitCompleted(run, publisher, name, conclusion, check, 0);
+    }
+
+    private static void submitCompleted(final Run<?, ?> run, final ChecksPublisher publisher, final String name,
+            final ChecksConclusion conclusion, @CheckForNull final PendingCheck check, final int attempt) {
+        // the output of the completed run does not change, so it is extracted by the worker that publishes it
+        submit(run.getParent(), publisher, name, () -> publisher
+                .publishAsync(createDetails(ChecksStatus.COMPLETED, conclusion, name, getOutput(run)))
+                .whenComplete((result, failure) -> {
+                    if (result != null && result.getOutcome() != ChecksPublishResult.Outcome.FAILED) {
+                        markDelivered(check);
+                    }
+                    else {
+                        retryCompleted(run, publisher, name, conclusion, check, attempt,
+                                result == null ? failure : result.getFailure().orElse(null));
+                    }
+                }));
+    }
+
+    private static void retryCompleted(final Run<?, ?> run, final ChecksPublisher publisher, final String name,
+            final ChecksConclusion conclusion, @CheckForNull final PendingCheck check, final int attempt,
+            @CheckForNull final Throwable failure) {
+        if (attempt >= COMPLETED_RETRIES) {
+            LOGGER.log(Level.WARNING, failure, () -> String.format(
+                    "Failed to publish the completed check '%s' of %s, it is published again after a restart",
+                    name, run));
+            return;
+        }
+        long delay = COMPLETED_RETRY_DELAY << attempt;
+        LOGGER.log(Level.FINE, failure, () -> String.format(
+                "Failed to publish the completed check '%s' of %s, retrying in %d seconds", name, run, delay));
+        Timer.get().schedule(() -> submitCompleted(run, publisher, name, conclusion, check, attempt + 1),
+                delay, TimeUnit.SECONDS);
+    }
+
+    @CheckForNull
+    private static PendingCheck addToOutbox(final Run<?, ?> run, final String name, final ChecksConclusion conclusion) {
+        PublishOutbox current = outbox;
+        if (current == null) {
+            return null;
+        }
+        try {
+            return current.add(run.getExternalizableId(), name, conclusion);
+        }
+        catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Unable to record the completed check of " + run + " in the outbox.", e);
+            return null;
+        }
+    }
+
+    private static void markDelivered(@CheckForNull final PendingCheck check) {
+        PublishOutbox current = outbox;
+        if (check == null || current == null) {
+            return;
+        }
+        try {
+            current.delivered(check);
+        }
+        catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Unable to remove a published check from the outbox.", e);
+        }
+    }
+
+    /**
+     * Opens the outbox in the Jenkins home directory once the jobs have been loaded and publishes the completed checks
+     * that have not been published before the restart. The checks of runs that have been deleted are dropped.
+     *
+     * @param jenkins
+     *         the Jenkins instance
+     */
+    @Initializer(after = InitMilestone.JOB_LOADED)
+    public static void replayOutbox(final Jenkins jenkins) {
+        Path journal = new File(jenkins.getRootDir(), PublishOutbox.class.getName() + ".journal").toPath();
+        PublishOutbox previous = outbox;
+        try {
+            if (previous != null) {
+                previous.close();
+            }
+            PublishOutbox opened = PublishOutbox.open(journal, OUTBOX_COMPACTION_THRESHOLD);
+            outbox = opened;
+            for (PendingCheck check : opened.getPending()) {
+                Run<?, ?> run = Run.fromExternalizableId(check.getRunId());
+                if (run == null) {
+                    markDelivered(check);
+                }
+                else {
+                    submitCompleted(run, ChecksPublisherFactory.fromRun(run, TaskListener.NULL), check.getName(),
+                            check.getConclusion(), check);
+                }
+            }
+        }
+        catch (IOException e) {
+            outbox = null;
+            LOGGER.log(Level.WARNING, "Unable to open the outbox " + journal
+                    + ", completed checks are not published again after a restart.", e);
+        }
+    }
+
+    /**
+     * Waits until the checks that have been submitted so far have been published, e.g. before a test inspects them.
+     *
+     * @param timeout
+     *         the maximum time to wait
+     * @param unit
+     *         the unit of the timeout
+     * @return {@code true} if the checks have been published, {@code false} if the timeout elapsed before
+     * @throws InterruptedException
+     *         if the thread has been interrupted while waiting
+     */
+    static boolean awaitPublishedChecks(final long timeout, final TimeUnit unit) throws InterruptedException {
+        return PUBLISH_QUEUE.awaitDelivery(timeout, unit);
+    }
+
+    private static String getStatistics() {
+        return String.format("Publish queue: %s, %d superseded progress updates, properties cache: %d hits, %d misses",
+                PUBLISH_QUEUE, PENDING_CHECKS.getSuperseded(), PROPERTIES.getHits(), PROPERTIES.getMisses());
+    }
 
     private static void publish(final ChecksPublisher publisher, final ChecksStatus status,
                                 final ChecksConclusion conclusion, final String name, @CheckForNull final ChecksOutput output) {
+        publisher.publish(createDetails(status, conclusion, name, output));
+    }
+
+    private static ChecksDetails createDetails(final ChecksStatus status, final ChecksConclusion conclusion,
+            final String name, @CheckForNull final ChecksOutput output) {
         ChecksDetailsBuilder builder = new ChecksDetailsBuilder()
                 .withName(name)
                 .withStatus(status)
@@ -63,18 +331,33 @@ public final class BuildStatusChecksPublisher {
             builder.withOutput(output);
         }
 
-        publisher.publish(builder.build());
+        return builder.build();
     }
 
+    @Deprecated
+    private static final JobPropertiesCache<Optional<StatusChecksProperties>> DEPRECATED_PROPERTIES
+            = JobPropertiesCache.invalidatedOnItemChanges(BuildStatusChecksPublisher::resolveDeprecatedProperties);
+    private static final JobPropertiesCache<AbstractStatusChecksProperties> PROPERTIES
+            = JobPropertiesCache.invalidatedOnItemChanges(BuildStatusChecksPublisher::resolveProperties);
+
     @Deprecated
     private static Optional<StatusChecksProperties> findDeprecatedProperties(final Job<?, ?> job) {
+        return DEPRECATED_PROPERTIES.get(job);
+    }
+
+    private static AbstractStatusChecksProperties findProperties(final Job<?, ?> job) {
+        return PROPERTIES.get(job);
+    }
+
+    @Deprecated
+    private static Optional<StatusChecksProperties> resolveDeprecatedProperties(final Job<?, ?> job) {
         return JENKINS.getExtensionsFor(StatusChecksProperties.class)
                 .stream()
                 .filter(p -> p.isApplicable(job))
                 .findFirst();
     }
 
-    private static AbstractStatusChecksProperties findProperties(final Job<?, ?> job) {
+    private static AbstractStatusChecksProperties resolveProperties(final Job<?, ?> job) {
         return JENKINS.getExtensionsFor(AbstractStatusChecksProperties.class)
                 .stream()
                 .filter(p -> p.isApplicable(job))
@@ -82,6 +365,29 @@ public final class BuildStatusChecksPublisher {
                 .orElse(DEFAULT_PROPERTIES);
     }
 
+    /**
+     * Drops the cached properties of all jobs, as the extensions have been loaded anew, and registers listeners that
+     * do so whenever the status checks properties extensions change, e.g. when a plugin is installed dynamically.
+     */
+    @Initializer(after = InitMilestone.EXTENSIONS_AUGMENTED)
+    @SuppressWarnings("deprecation")
+    public static void listenToPropertiesExtensions() {
+        PROPERTIES.invalidateAll();
+        DEPRECATED_PROPERTIES.invalidateAll();
+        ExtensionList.lookup(AbstractStatusChecksProperties.class).addListener(new ExtensionListListener() {
+            @Override
+            public void onChange() {
+                PROPERTIES.invalidateAll();
+            }
+        });
+        ExtensionList.lookup(StatusChecksProperties.class).addListener(new ExtensionListListener() {
+            @Override
+            public void onChange() {
+                DEPRECATED_PROPERTIES.invalidateAll();
+            }
+        });
+    }
+
     static Optional<String> getChecksName(final Run<?, ?> run) {
         return getChecksName(run.getParent());
     }
@@ -121,11 +427,42 @@ public final class BuildStatusChecksPublisher {
     }
 
     static ChecksOutput getOutput(final Run<?, ?> run, final FlowExecution execution) {
-        return new FlowExecutionAnalyzer(run, execution, findProperties(run.getParent()).isSuppressLogs(run.getParent())).extractOutput();
+        return createAnalyzer(run, execution).extractOutput();
+    }
+
+    static ChecksOutput getOutput(final Run<?, ?> run, final FlowExecution execution,
+            final IncrementalFlowGraph graph) {
+        return createAnalyzer(run, execution).extractOutput(graph.getRows());
+    }
+
+    private static FlowExecutionAnalyzer createAnalyzer(final Run<?, ?> run, final FlowExecution execution) {
+        Job<?, ?> job = run.getParent();
+        AbstractStatusChecksProperties properties = findProperties(job);
+        return new FlowExecutionAnalyzer(run, execution, properties.isSuppressLogs(job), properties.getLogHeadSize(job));
     }
 
     static ChecksOutput getFreeStyleBuildOutput(final Run<?, ?> run) {
-        return new FreeStyleBuildAnalyzer(run, findProperties(run.getParent()).isSuppressLogs(run.getParent())).extractOutput();
+        Job<?, ?> job = run.getParent();
+        AbstractStatusChecksProperties properties = findProperties(job);
+        return new FreeStyleBuildAnalyzer(run, properties.isSuppressLogs(job), properties.getLogHeadSize(job))
+                .extractOutput();
+    }
+
+    /**
+     * Logs the statistics of the publish queue and the caches periodically, to judge whether the number of publishing
+     * threads and the capacity of the queue fit the load.
+     */
+    @Extension
+    public static class PublishStatisticsLogger extends PeriodicWork {
+        @Override
+        public long getRecurrencePeriod() {
+            return STATISTICS_PERIOD;
+        }
+
+        @Override
+        protected void doRun() {
+            LOGGER.log(Level.FINE, BuildStatusChecksPublisher::getStatistics);
+        }
     }
 
     /**
@@ -147,16 +484,10 @@ public final class BuildStatusChecksPublisher {
             }
 
             final Job<?, ?> job = (Job<?, ?>) wi.task;
-            getChecksName(job).ifPresent(checksName -> runAsync(() -> {
-                ChecksPublisher publisher = ChecksPublisherFactory.fromJob(job, TaskListener.NULL);
-                publish(publisher, ChecksStatus.QUEUED, ChecksConclusion.NONE, checksName, null);
-            }));
-        }
-
-        @SuppressFBWarnings("RV_RETURN_VALUE_IGNORED_BAD_PRACTICE")
-        @SuppressWarnings("PMD.DoNotUseThreads")
-        private void runAsync(final Runnable run) {
-            Computer.threadPoolForRemoting.submit(run);
+            // this thread holds the lock of the queue, so even the publisher is looked up by another thread
+            getChecksName(job).ifPresent(checksName -> submitQueued(job, checksName,
+                    () -> publish(ChecksPublisherFactory.fromJob(job, TaskListener.NULL), ChecksStatus.QUEUED,
+                            ChecksConclusion.NONE, checksName, null)));
         }
     }
 
@@ -176,8 +507,8 @@ public final class BuildStatusChecksPublisher {
         public void onCheckout(final Run<?, ?> run, final SCM scm, final FilePath workspace,
                                final TaskListener listener, @CheckForNull final File changelogFile,
                                @CheckForNull final SCMRevisionState pollingBaseline) {
-            getChecksName(run).ifPresent(checksName -> publish(ChecksPublisherFactory.fromRun(run, listener),
-                    ChecksStatus.IN_PROGRESS, ChecksConclusion.NONE, checksName, null));
+            getChecksName(run).ifPresent(checksName -> submitProgress(run, createQueuedPublisher(run, listener),
+                    checksName, null));
         }
     }
 
@@ -196,8 +527,19 @@ public final class BuildStatusChecksPublisher {
          */
         @Override
         public void onCompleted(final Run run, @CheckForNull final TaskListener listener) {
-            getChecksName(run).ifPresent(checksName -> publish(ChecksPublisherFactory.fromRun(run, listener),
-                    ChecksStatus.COMPLETED, extractConclusion(run), checksName, getOutput(run)));
+            if (run instanceof FlowExecutionOwner.Executable) {
+                ChecksGraphListener.forget(((FlowExecutionOwner.Executable) run).asFlowExecutionOwner());
+            }
+            // a pending progress update must not overwrite the final status
+            PROGRESS_UPDATES.cancel(run.getExternalizableId());
+            // the progress updates of the run that still wait are published before, as they have the same queue key
+            getChecksName(run).ifPresent(checksName -> {
+                ChecksPublisher publisher = createQueuedPublisher(run, listener);
+                ChecksConclusion conclusion = extractConclusion(run);
+                PendingCheck check = publisher instanceof NullChecksPublisher
+                        ? null : addToOutbox(run, checksName, conclusion);
+                submitCompleted(run, publisher, checksName, conclusion, check);
+            });
         }
 
         @SuppressWarnings("PMD.CyclomaticComplexity")
@@ -234,8 +576,27 @@ public final class BuildStatusChecksPublisher {
      */
     @Extension
     public static class ChecksGraphListener implements GraphListener {
+        /** The graphs of the running pipelines that publish progress updates, kept up to date with every new node. */
+        private static final Map<FlowExecutionOwner, IncrementalFlowGraph> GRAPHS = new ConcurrentHashMap<>();
+
+        static void forget(@CheckForNull final FlowExecutionOwner owner) {
+            if (owner != null) {
+                GRAPHS.remove(owner);
+            }
+        }
+
         @Override
         public void onNewHead(final FlowNode node) {
+            FlowExecution execution = node.getExecution();
+            if (node instanceof FlowEndNode) {
+                forget(execution.getOwner());
+                return;
+            }
+            IncrementalFlowGraph graph = GRAPHS.get(execution.getOwner());
+            if (graph != null) {
+                graph.onNewHead(node);
+            }
+
             if (node.getAction(LabelAction.class) == null) {
                 // It's not a branch or stage node, so let's not worry about updating.
                 return;
@@ -252,8 +613,17 @@ public final class BuildStatusChecksPublisher {
 
             Job<?, ?> job = run.getParent();
             if (!findProperties(job).isSkipProgressUpdates(job)) {
-                getChecksName(run).ifPresent(checksName -> publish(ChecksPublisherFactory.fromRun(run, TaskListener.NULL),
-                        ChecksStatus.IN_PROGRESS, ChecksConclusion.NONE, checksName, getOutput(run, node.getExecution())));
+                getChecksName(run).ifPresent(checksName -> {
+                    // the first update walks the flow graph, which already contains the new node
+                    IncrementalFlowGraph runGraph = graph == null
+                            ? GRAPHS.computeIfAbsent(execution.getOwner(), owner -> IncrementalFlowGraph.of(execution))
+                            : graph;
+                    // the output is only computed for the update that is published, as a snapshot of the progress
+                    PROGRESS_UPDATES.submit(run.getExternalizableId(), () -> {
+                        ChecksOutput output = getOutput(run, execution, runGraph);
+                        submitProgress(run, ChecksPublisherFactory.fromRun(run, TaskListener.NULL), checksName, output);
+                    });
+                });
             }
         }
     }
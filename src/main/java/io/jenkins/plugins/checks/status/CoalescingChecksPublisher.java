@@ -0,0 +1,163 @@
+package io.jenkins.plugins.checks.status;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import io.jenkins.plugins.checks.api.ChecksDetails;
+import io.jenkins.plugins.checks.api.ChecksPublishResult;
+import io.jenkins.plugins.checks.api.ChecksPublisher;
+import io.jenkins.plugins.checks.api.ChecksStatus;
+
+/**
+ * Decorates the publisher of a run so that at most one check per name waits to be published: a check that is
+ * published while the previous check with the same name still waits for the executor replaces it. So when the
+ * checks are published faster than the SCM platform accepts them, the superseded progress updates are never sent,
+ * and the number of calls depends on how long the calls take rather than on how many updates there are. A completed
+ * check is never replaced by a check that is not completed, so the final status of a run is never dropped. The result
+ * of a check that has been replaced is {@link ChecksPublishResult.Outcome#DEDUPLICATED}.
+ *
+ * <p>
+ * As a new publisher is created for each check, the waiting checks are kept in {@link PendingChecks} that are shared
+ * by the publishers. The executor has to run the publishes of a run and check name in the order they are submitted.
+ * </p>
+ */
+class CoalescingChecksPublisher extends ChecksPublisher {
+    private final ChecksPublisher delegate;
+    private final String runId;
+    private final Executor executor;
+    private final PendingChecks pendingChecks;
+
+    /**
+     * Creates a publisher.
+     *
+     * @param delegate
+     *         the publisher that sends the checks
+     * @param runId
+     *         the ID of the run
+     * @param executor
+     *         the executor that runs the publishes of the run
+     * @param pendingChecks
+     *         the checks waiting to be published
+     */
+    CoalescingChecksPublisher(final ChecksPublisher delegate, final String runId, final Executor executor,
+            final PendingChecks pendingChecks) {
+        super();
+
+        this.delegate = delegate;
+        this.runId = runId;
+        this.executor = executor;
+        this.pendingChecks = pendingChecks;
+    }
+
+    @Override
+    public void publish(final ChecksDetails details) {
+        publishAsync(details);
+    }
+
+    @Override
+    public CompletableFuture<ChecksPublishResult> publishAsync(final ChecksDetails details) {
+        String key = runId + ':' + details.getName().orElse("");
+        Pending check = new Pending(details, delegate);
+        if (pendingChecks.replace(key, check)) {
+            executor.execute(() -> pendingChecks.publish(key));
+        }
+        return check.result;
+    }
+
+    /**
+     * The checks that wait to be published, at most one per run and check name.
+     */
+    static class PendingChecks {
+        private final Map<String, Pending> pending = new HashMap<>();
+        private long superseded = 0;
+
+        /**
+         * Adds a check that waits to be published, or replaces the check with the same key that waits.
+         *
+         * @return {@code true} if no check with the key waited, so the check has to be published by a new task
+         */
+        synchronized boolean replace(final String key, final Pending check) {
+            Pending previous = pending.get(key);
+            if (previous == null) {
+                pending.put(key, check);
+                return true;
+            }
+            superseded++;
+            if (previous.details.getStatus() != ChecksStatus.COMPLETED
+                    || check.details.getStatus() == ChecksStatus.COMPLETED) {
+                pending.put(key, check);
+                previous.deduplicated();
+            }
+            else {
+                check.deduplicated();
+            }
+            return false;
+        }
+
+        /**
+         * Publishes the check with the given key that waits, if any.
+         *
+         * @param key
+         *         the key of the check
+         */
+        void publish(final String key) {
+            Pending check;
+            synchronized (this) {
+                check = pending.remove(key);
+            }
+            if (check != null) {
+                check.publish();
+            }
+        }
+
+        /**
+         * Returns the number of checks that have not been published, since they were superseded while waiting.
+         *
+         * @return the number of superseded checks
+         */
+        synchronized long getSuperseded() {
+            return superseded;
+        }
+    }
+
+    /**
+     * A check that waits to be published with the publisher it was published with.
+     */
+    private static final class Pending {
+        private final ChecksDetails details;
+        private final ChecksPublisher publisher;
+        private final long submitted = System.nanoTime();
+        private final CompletableFuture<ChecksPublishResult> result = new CompletableFuture<>();
+
+        Pending(final ChecksDetails details, final ChecksPublisher publisher) {
+            this.details = details;
+            this.publisher = publisher;
+        }
+
+        /**
+         * Publishes the check; a failure is reported as result and passed on to the executor.
+         */
+        @SuppressWarnings("IllegalCatch")
+        void publish() {
+            try {
+                publisher.publish(details);
+                result.complete(ChecksPublishResult.accepted(getLatency()));
+            }
+            catch (RuntimeException exception) {
+                result.complete(ChecksPublishResult.failed(getLatency(), exception));
+                throw exception;
+            }
+        }
+
+        void deduplicated() {
+            result.complete(ChecksPublishResult.deduplicated(getLatency()));
+        }
+
+        private Duration getLatency() {
+            return Duration.ofNanos(System.nanoTime() - submitted);
+        }
+    }
+}
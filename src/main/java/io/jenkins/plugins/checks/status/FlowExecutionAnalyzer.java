@@ -4,21 +4,33 @@ import static io.jenkins.plugins.checks.utils.FlowNodeUtils.getEnclosingBlockNam
 import static io.jenkins.plugins.checks.utils.FlowNodeUtils.getEnclosingStagesAndParallels;
 
 import edu.umd.cs.findbugs.annotations.CheckForNull;
+import hudson.Util;
+import hudson.console.AnnotatedLargeText;
 import hudson.model.Run;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
 import io.jenkins.plugins.checks.api.ChecksOutput;
 import io.jenkins.plugins.checks.api.TruncatedString;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.Stack;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.logging.Level;
 import java.util.stream.Collectors;
+import jenkins.util.SystemProperties;
 import org.apache.commons.collections.iterators.ReverseListIterator;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.tuple.Pair;
 import org.jenkinsci.plugins.displayurlapi.DisplayURLProvider;
 import org.jenkinsci.plugins.workflow.actions.ArgumentsAction;
 import org.jenkinsci.plugins.workflow.actions.ErrorAction;
@@ -33,15 +45,62 @@ import org.jenkinsci.plugins.workflow.support.visualization.table.FlowGraphTable
 
 @SuppressWarnings("PMD.GodClass")
 class FlowExecutionAnalyzer extends AbstractRunAnalyzer {
+    private static final String LOG_TEMPLATE = "<details>%n<summary>Build log</summary>%n%n```%n%s%n```%n</details>";
+    /** Ensures a double newline at the end of a summary so the subsequent heading works. */
+    private static final String SUMMARY_END = "\n\n";
+    /** Logs that would get less space are not read, as hardly anything of them would be shown. */
+    static final int MIN_LOG_SIZE = 256;
+    /** The number of threads that read the logs of error nodes concurrently. */
+    private static final int LOG_READ_THREADS = SystemProperties.getInteger(
+            FlowExecutionAnalyzer.class.getName() + ".logReadThreads", 4);
+    /**
+     * The maximum number of logs waiting for a reader thread, further logs are left out of the summary while the
+     * queue is full.
+     */
+    private static final int LOG_READ_QUEUE_CAPACITY = SystemProperties.getInteger(
+            FlowExecutionAnalyzer.class.getName() + ".logReadQueueCapacity", 100);
+    /** The seconds to wait for the logs of all error nodes, before leaving those not read out of the summary. */
+    private static final int LOG_READ_TIMEOUT = SystemProperties.getInteger(
+            FlowExecutionAnalyzer.class.getName() + ".logReadTimeout", 30);
+    private static final ExecutorService LOG_READERS = createLogReaders(LOG_READ_THREADS, LOG_READ_QUEUE_CAPACITY);
+
     private final FlowExecution execution;
     private final Stack<Integer> indentationStack = new Stack<>(); // NOPMD TODO: replace with DeQueue
 
-    FlowExecutionAnalyzer(final Run<?, ?> run, final FlowExecution execution, final boolean suppressLogs) {
-        super(run, suppressLogs);
+    FlowExecutionAnalyzer(final Run<?, ?> run, final FlowExecution execution, final boolean suppressLogs,
+            final int logHeadSize) {
+        super(run, suppressLogs, logHeadSize);
         this.execution = execution;
     }
 
-    private static Optional<String> getStageOrBranchName(final FlowNode node) {
+    /**
+     * Creates the executor that reads the logs. When its queue is full, further logs are rejected rather than read by
+     * the submitting thread, so that the logs waiting to be read are bounded and the submitting thread never reads a
+     * log without a deadline.
+     *
+     * @param threads
+     *         the number of reader threads
+     * @param queueCapacity
+     *         the maximum number of logs waiting for a reader thread
+     * @return the executor
+     */
+    static ExecutorService createLogReaders(final int threads, final int queueCapacity) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads,
+                60L, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                new NamingThreadFactory(new DaemonThreadFactory(), "FlowExecutionAnalyzer log reader"),
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Returns the name of the stage or parallel branch the given node starts.
+     *
+     * @param node
+     *         the node
+     * @return the name of the stage or branch, or an empty optional if the node does not start one
+     */
+    static Optional<String> getStageOrBranchName(final FlowNode node) {
         if (node instanceof BlockStartNode) {
             // a stage or parallel branch must be a BlockStartNode
             return getParallelName(node).or(() -> getStageName(node));
@@ -66,8 +125,7 @@ class FlowExecutionAnalyzer extends AbstractRunAnalyzer {
                 .map(ThreadNameAction::getThreadName);
     }
 
-    private Pair<String, String> processStageOrBranchRow(final FlowGraphTable.Row row,
-                                                         final String stageOrBranchName) {
+    private NodeOutput processStageOrBranchRow(final Row row, final String stageOrBranchName) {
         final StringBuilder nodeTextBuilder = new StringBuilder();
         while (!indentationStack.isEmpty() && row.getTreeDepth() < indentationStack.peek()) {
             indentationStack.pop();
@@ -87,11 +145,11 @@ class FlowExecutionAnalyzer extends AbstractRunAnalyzer {
             nodeTextBuilder.append(String.format(" *(%s)*", row.getDurationString()));
         }
         nodeTextBuilder.append("\n");
-        return Pair.of(nodeTextBuilder.toString(), "");
+        return new NodeOutput(row.getNode(), nodeTextBuilder, new StringBuilder(), null);
     }
 
-    private Pair<String, String> processErrorOrWarningRow(final FlowGraphTable.Row row, final ErrorAction errorAction,
-                                                          final WarningAction warningAction) {
+    private NodeOutput processErrorOrWarningRow(final Row row, final ErrorAction errorAction,
+            final WarningAction warningAction) {
         FlowNode flowNode = row.getNode();
 
         StringBuilder nodeSummaryBuilder = new StringBuilder();
@@ -120,18 +178,14 @@ class FlowExecutionAnalyzer extends AbstractRunAnalyzer {
         }
 
         nodeTextBuilder.append(String.join("", Collections.nCopies(indentationStack.size() + 1, "  ")));
+        AnnotatedLargeText<? extends FlowNode> logText = null;
         if (warningAction == null) {
             var displayName = errorAction == null ? "[no error action]" : errorAction.getDisplayName();
             nodeTextBuilder.append(String.format("**Error**: *%s*", displayName));
             nodeSummaryBuilder.append(String.format("```%n%s%n```%n", displayName));
-            if (!isSuppressLogs()) {
-                // -2 for "\n\n" at the end of the summary and -30 for buffer
-                String logTemplate = "<details>%n<summary>Build log</summary>%n%n```%n%s%n```%n</details>";
-                int maxMessageSize = MAX_MESSAGE_SIZE_TO_CHECKS_API - nodeSummaryBuilder.length() - logTemplate.length() - 32;
-                String log = getLog(flowNode, maxMessageSize);
-                if (StringUtils.isNotBlank(log)) {
-                    nodeSummaryBuilder.append(String.format(logTemplate, log));
-                }
+            LogAction logAction = flowNode.getAction(LogAction.class);
+            if (!isSuppressLogs() && logAction != null) {
+                logText = logAction.getLogText();
             }
         }
         else {
@@ -147,8 +201,20 @@ class FlowExecutionAnalyzer extends AbstractRunAnalyzer {
                     flowNode.getDisplayName()).replaceAll("[\r\n]", ""), e);
         }
         nodeTextBuilder.append("\n");
-        nodeSummaryBuilder.append("\n\n");  // Ensure a double newline at the end of summary so the subsequence heading works
-        return Pair.of(nodeTextBuilder.toString(), nodeSummaryBuilder.toString());
+        return new NodeOutput(flowNode, nodeTextBuilder, nodeSummaryBuilder, logText);
+    }
+
+    /**
+     * Returns whether the given node is part of the output, i.e. whether it starts a stage or parallel branch or has
+     * an error or warning.
+     *
+     * @param node
+     *         the node
+     * @return {@code true} if the node is part of the output
+     */
+    static boolean isPartOfOutput(final FlowNode node) {
+        return getStageOrBranchName(node).isPresent() || node.getError() != null
+                || node.getPersistentAction(WarningAction.class) != null;
     }
 
     @Override
@@ -156,6 +222,19 @@ class FlowExecutionAnalyzer extends AbstractRunAnalyzer {
         FlowGraphTable table = new FlowGraphTable(execution);
         table.build();
 
+        return extractOutput(table.getRows().stream().map(Row::new).collect(Collectors.toList()));
+    }
+
+    /**
+     * Extracts the output from the given rows of the flow graph, in the order of {@link FlowGraphTable}. Rows of
+     * nodes that are not part of the output are skipped.
+     *
+     * @param rows
+     *         the rows of the flow graph
+     * @return the extracted output
+     */
+    ChecksOutput extractOutput(final List<Row> rows) {
+        // no maximum size, as publishers build the output with the limit of their platform
         TruncatedString.Builder summaryBuilder = new TruncatedString.Builder()
                 .withTruncationText(TRUNCATED_MESSAGE);
         TruncatedString.Builder textBuilder = new TruncatedString.Builder()
@@ -163,7 +242,8 @@ class FlowExecutionAnalyzer extends AbstractRunAnalyzer {
         indentationStack.clear();
 
         String title = null;
-        for (FlowGraphTable.Row row : table.getRows()) {
+        List<NodeOutput> nodeOutputs = new ArrayList<>();
+        for (Row row : rows) {
             final FlowNode flowNode = row.getNode();
 
             Optional<String> stageOrBranchName = getStageOrBranchName(flowNode);
@@ -171,19 +251,24 @@ class FlowExecutionAnalyzer extends AbstractRunAnalyzer {
             WarningAction warningAction = flowNode.getPersistentAction(WarningAction.class);
 
             if (stageOrBranchName.isPresent() || errorAction != null || warningAction != null) {
-                final Pair<String, String> nodeInfo = stageOrBranchName.map(s -> processStageOrBranchRow(row, s))
-                        .orElseGet(() -> processErrorOrWarningRow(row, errorAction, warningAction));
+                nodeOutputs.add(stageOrBranchName.map(s -> processStageOrBranchRow(row, s))
+                        .orElseGet(() -> processErrorOrWarningRow(row, errorAction, warningAction)));
 
                 // the last title will be used in the ChecksOutput (if any are found)
                 if (stageOrBranchName.isEmpty()) {
                     title = getPotentialTitle(flowNode, errorAction);
                 }
-
-                textBuilder.addText(nodeInfo.getLeft());
-                summaryBuilder.addText(nodeInfo.getRight());
             }
         }
 
+        planLogSizes(nodeOutputs);
+        readLogs(nodeOutputs);
+        for (NodeOutput nodeOutput : nodeOutputs) {
+            // the rows are added without copying them, only the parts that are kept end up in the output
+            textBuilder.addText(nodeOutput.text);
+            summaryBuilder.addText(getSummary(nodeOutput));
+        }
+
         return new ChecksOutput.ChecksOutputBuilder()
                 .withTitle(extractOutputTitle(Optional.ofNullable(title)))
                 .withSummary(summaryBuilder.build())
@@ -201,33 +286,227 @@ class FlowExecutionAnalyzer extends AbstractRunAnalyzer {
         return StringUtils.join(new ReverseListIterator(enclosingBlockNames), "/") + ": " + whereBuildFailed;
     }
 
-    @CheckForNull
-    private static String getLog(final FlowNode flowNode, final int maxMessageSize) {
-        LogAction logAction = flowNode.getAction(LogAction.class);
-        if (logAction == null) {
-            return null;
+    /**
+     * Plans how much of its log each error node may add to the summary, before any log is read. The summary keeps
+     * the nodes in order until the first one that does not fit, so each node gets the space left by the nodes before
+     * it, and logs that would not fit or of which hardly anything would be shown are not read at all. The length of
+     * a log is an upper bound of its text, as color codes and console notes are stripped.
+     */
+    private static void planLogSizes(final List<NodeOutput> nodeOutputs) {
+        int[] summaryLengths = new int[nodeOutputs.size()];
+        long[] logLengths = new long[nodeOutputs.size()];
+        for (int i = 0; i < nodeOutputs.size(); i++) {
+            NodeOutput nodeOutput = nodeOutputs.get(i);
+            summaryLengths[i] = nodeOutput.summary.length();
+            logLengths[i] = nodeOutput.logText == null ? -1 : nodeOutput.logText.length();
+        }
+        int[] logSizes = planLogSizes(summaryLengths, logLengths);
+        for (int i = 0; i < nodeOutputs.size(); i++) {
+            NodeOutput nodeOutput = nodeOutputs.get(i);
+            if (logSizes[i] == 0) {
+                nodeOutput.logText = null;
+            }
+            nodeOutput.maxLogSize = logSizes[i];
+        }
+    }
+
+    /**
+     * Plans the log sizes of nodes with the given summary and log lengths, see {@link #planLogSizes(List)}.
+     *
+     * @param summaryLengths
+     *         the lengths of the summaries of the nodes, 0 for nodes without summary
+     * @param logLengths
+     *         the lengths of the logs of the nodes, negative for nodes without log
+     * @return the maximum size of the log of each node, 0 if its log is not read
+     */
+    static int[] planLogSizes(final int[] summaryLengths, final long[] logLengths) {
+        int[] logSizes = new int[summaryLengths.length];
+        long remaining = MAX_MESSAGE_SIZE_TO_CHECKS_API - TRUNCATED_MESSAGE.length();
+        for (int i = 0; i < summaryLengths.length; i++) {
+            if (summaryLengths[i] == 0) {
+                continue;
+            }
+            remaining -= summaryLengths[i] + SUMMARY_END.length();
+            if (logLengths[i] < 0) {
+                continue;
+            }
+            // -30 for buffer
+            long maxLogSize = Math.min(remaining, MAX_MESSAGE_SIZE_TO_CHECKS_API - summaryLengths[i])
+                    - LOG_TEMPLATE.length() - 32;
+            if (maxLogSize < MIN_LOG_SIZE) {
+                continue;
+            }
+            logSizes[i] = (int) maxLogSize;
+            remaining -= LOG_TEMPLATE.length() + Math.min(maxLogSize, logLengths[i]);
+        }
+        return logSizes;
+    }
+
+    /**
+     * Reads all planned logs concurrently, so that the time taken is that of the slowest log rather than the sum of
+     * all of them.
+     */
+    private void readLogs(final List<NodeOutput> nodeOutputs) {
+        List<NodeOutput> withLogs = new ArrayList<>();
+        List<Callable<String>> reads = new ArrayList<>();
+        for (NodeOutput nodeOutput : nodeOutputs) {
+            AnnotatedLargeText<? extends FlowNode> logText = nodeOutput.logText;
+            if (logText != null) {
+                withLogs.add(nodeOutput);
+                reads.add(() -> getLog(nodeOutput.node, logText, nodeOutput.maxLogSize));
+            }
+        }
+        List<String> logs = readConcurrently(reads, LOG_READERS, LOG_READ_TIMEOUT, TimeUnit.SECONDS);
+        for (int i = 0; i < withLogs.size(); i++) {
+            withLogs.get(i).log = logs.get(i);
+        }
+    }
+
+    /**
+     * Runs the given reads on the executor and returns their results in the given order. All reads are waited for
+     * until the same deadline, so that the thread extracting the output, which may be the thread running the
+     * pipeline, is blocked for at most the timeout no matter how many logs there are. The reads are never run on the
+     * calling thread: reads that the executor rejects, as its queue is full, yield {@code null}, just like reads that
+     * fail or have not completed by the deadline, which are cancelled.
+     *
+     * @param reads
+     *         the reads
+     * @param executor
+     *         the executor to run the reads on
+     * @param timeout
+     *         the maximum time to wait for all reads
+     * @param unit
+     *         the unit of the timeout
+     * @return the results of the reads
+     */
+    static List<String> readConcurrently(final List<Callable<String>> reads, final ExecutorService executor,
+            final long timeout, final TimeUnit unit) {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        List<Future<String>> futures = new ArrayList<>(reads.size());
+        int rejected = 0;
+        for (Callable<String> read : reads) {
+            try {
+                futures.add(executor.submit(read));
+            }
+            catch (RejectedExecutionException e) {
+                futures.add(null);
+                rejected++;
+            }
         }
-        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-            if (logAction.getLogText().writeLogTo(0, out) == 0) {
-                return null;
+        List<String> results = new ArrayList<>(reads.size());
+        int timedOut = 0;
+        for (Future<String> future : futures) {
+            String result = null;
+            if (future == null) {
+                results.add(null);
+                continue;
+            }
+            try {
+                result = future.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            }
+            catch (InterruptedException e) {
+                future.cancel(true);
+                Thread.currentThread().interrupt();
+            }
+            catch (ExecutionException e) {
+                LOGGER.log(Level.WARNING, "Failed to extract logs", e.getCause());
             }
+            catch (TimeoutException e) {
+                future.cancel(true);
+                timedOut++;
+            }
+            results.add(result);
+        }
+        if (timedOut > 0) {
+            LOGGER.log(Level.WARNING, String.format("Timed out extracting logs of %d of %d steps",
+                    timedOut, reads.size()));
+        }
+        if (rejected > 0) {
+            LOGGER.log(Level.WARNING, String.format(
+                    "Skipped extracting logs of %d of %d steps, as the log readers are busy", rejected, reads.size()));
+        }
+        return results;
+    }
 
-            String outputString = out.toString(StandardCharsets.UTF_8);
-            // strip ansi color codes
-            String log = outputString.replaceAll("\u001B\\[[;\\d]*m", "");
+    private CharSequence getSummary(final NodeOutput nodeOutput) {
+        if (nodeOutput.summary.length() == 0) {
+            return nodeOutput.summary;
+        }
+        if (StringUtils.isNotBlank(nodeOutput.log)) {
+            nodeOutput.summary.append(String.format(LOG_TEMPLATE, nodeOutput.log));
+        }
+        return nodeOutput.summary.append(SUMMARY_END);
+    }
 
-            return new TruncatedString.Builder()
-                    .setChunkOnNewlines()
-                    .setTruncateStart()
-                    .withTruncationText(TRUNCATED_MESSAGE_BUILD_LOG)
-                    .addText(log)
-                    .build()
-                    .build(maxMessageSize);
+    @CheckForNull
+    private String getLog(final FlowNode flowNode, final AnnotatedLargeText<? extends FlowNode> logText,
+            final int maxMessageSize) {
+        TruncatedString.Builder logBuilder;
+        try {
+            logBuilder = readLog(logText, maxMessageSize);
         }
         catch (IOException e) {
             LOGGER.log(Level.WARNING, String.format("Failed to extract logs for step '%s'",
                     flowNode.getDisplayName()).replaceAll("[\r\n]", ""), e);
             return null;
         }
+        if (logBuilder == null) {
+            return null;
+        }
+        return logBuilder.build().build(maxMessageSize);
+    }
+
+    /**
+     * A row of the flow graph: a node, its depth in the tree of blocks and, for a block, the time it took.
+     */
+    static final class Row {
+        private final FlowNode node;
+        private final int treeDepth;
+        private final long durationMillis;
+
+        Row(final FlowNode node, final int treeDepth, final long durationMillis) {
+            this.node = node;
+            this.treeDepth = treeDepth;
+            this.durationMillis = durationMillis;
+        }
+
+        Row(final FlowGraphTable.Row row) {
+            this(row.getNode(), row.getTreeDepth(), row.getDurationMillis());
+        }
+
+        FlowNode getNode() {
+            return node;
+        }
+
+        int getTreeDepth() {
+            return treeDepth;
+        }
+
+        String getDurationString() {
+            return Util.getTimeSpanString(durationMillis);
+        }
+    }
+
+    /**
+     * The text and summary of a stage, branch or error node, and the log of an error node that is yet to be added
+     * to the summary.
+     */
+    private static final class NodeOutput {
+        private final FlowNode node;
+        private final CharSequence text;
+        private final StringBuilder summary;
+        @CheckForNull
+        private AnnotatedLargeText<? extends FlowNode> logText;
+        private int maxLogSize;
+        @CheckForNull
+        private String log;
+
+        NodeOutput(final FlowNode node, final CharSequence text, final StringBuilder summary,
+                @CheckForNull final AnnotatedLargeText<? extends FlowNode> logText) {
+            this.node = node;
+            this.text = text;
+            this.summary = summary;
+            this.logText = logText;
+        }
     }
 }
@@ -1,6 +1,11 @@
 package io.jenkins.plugins.checks.status;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
 import java.util.Optional;
 import java.util.logging.Level;
 
@@ -12,9 +17,10 @@ import io.jenkins.plugins.checks.api.TruncatedString;
 
 class FreeStyleBuildAnalyzer extends AbstractRunAnalyzer {
     private static final int MAX_LOG_LINES = 1000;
+    private static final long MAX_LOG_BYTES_PER_MESSAGE_BYTE = 4;
 
-    FreeStyleBuildAnalyzer(final Run<?, ?> run, final boolean suppressLogs) {
-        super(run, suppressLogs);
+    FreeStyleBuildAnalyzer(final Run<?, ?> run, final boolean suppressLogs, final int logHeadSize) {
+        super(run, suppressLogs, logHeadSize);
     }
 
     @Override
@@ -33,26 +39,15 @@ class FreeStyleBuildAnalyzer extends AbstractRunAnalyzer {
 
         String log;
         try {
-            // Get all log lines
-            java.util.List<String> allLines = getRun().getLog(MAX_LOG_LINES + 1);
-            boolean truncatedLines = allLines.size() > MAX_LOG_LINES;
             int maxMessageSize = MAX_MESSAGE_SIZE_TO_CHECKS_API - LOG_DETAILS_TEMPLATE.length() - 32;
-            
-            if (truncatedLines) {
-                allLines = allLines.subList(1, MAX_LOG_LINES + 1);
+            TruncatedString.Builder logBuilder = createLogBuilder(maxMessageSize);
+
+            if (getLogHeadSize() > 0) {
+                // the last lines would lose the start of the log, so read all of it
+                addLog(getRun().getLogText(), logBuilder);
             }
-            
-            log = String.join("\n", allLines);
-            log = log.replaceAll("\u001B\\[[;\\d]*m", "");
-
-            TruncatedString.Builder logBuilder = new TruncatedString.Builder()
-                    .setChunkOnNewlines()
-                    .setTruncateStart()
-                    .withTruncationText(TRUNCATED_MESSAGE_BUILD_LOG)
-                    .addText(log);
-            
-            if (truncatedLines) {
-                logBuilder.setForceTruncationText();
+            else {
+                addLastLines(logBuilder, maxMessageSize);
             }
 
             log = logBuilder.build().build(maxMessageSize);
@@ -69,4 +64,46 @@ class FreeStyleBuildAnalyzer extends AbstractRunAnalyzer {
 
         return output.withSummary(summaryBuilder.build()).build();
     }
+
+    /**
+     * Adds the last lines of the log. If the log is a plain file, only its end is read; otherwise, e.g. if it has
+     * been compressed, the lines are read using {@link Run#getLog(int)}.
+     */
+    private void addLastLines(final TruncatedString.Builder logBuilder, final int maxSize) throws IOException {
+        File logFile = getRun().getLogFile();
+        if (!logFile.isFile() || logFile.getName().endsWith(".gz")) {
+            addLastLines(logBuilder);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(logFile.toPath(), StandardOpenOption.READ)) {
+            // console notes take up bytes of the file that are not part of the text
+            LogFileTail tail = LogFileTail.find(channel, MAX_LOG_LINES, MAX_LOG_BYTES_PER_MESSAGE_BYTE * maxSize);
+            try (OutputStream out = createLogStream(logBuilder)) {
+                tail.copyTo(channel, out);
+            }
+            if (tail.isTruncated()) {
+                logBuilder.setForceTruncationText();
+            }
+        }
+    }
+
+    private void addLastLines(final TruncatedString.Builder logBuilder) throws IOException {
+        List<String> allLines = getRun().getLog(MAX_LOG_LINES + 1);
+        boolean truncatedLines = allLines.size() > MAX_LOG_LINES;
+
+        if (truncatedLines) {
+            allLines = allLines.subList(1, MAX_LOG_LINES + 1);
+        }
+
+        for (int i = 0; i < allLines.size(); i++) {
+            if (i > 0) {
+                logBuilder.addText("\n");
+            }
+            logBuilder.addText(AnsiStrippingOutputStream.strip(allLines.get(i)));
+        }
+
+        if (truncatedLines) {
+            logBuilder.setForceTruncationText();
+        }
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,186 @@
+package io.jenkins.plugins.checks.status;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+
+import org.jenkinsci.plugins.workflow.actions.TimingAction;
+import org.jenkinsci.plugins.workflow.flow.FlowExecution;
+import org.jenkinsci.plugins.workflow.graph.BlockEndNode;
+import org.jenkinsci.plugins.workflow.graph.BlockStartNode;
+import org.jenkinsci.plugins.workflow.graph.FlowNode;
+import org.jenkinsci.plugins.workflow.support.visualization.table.FlowGraphTable;
+
+/**
+ * The stages, parallel branches, errors and warnings of a running pipeline, which are the rows of the
+ * {@link FlowExecutionAnalyzer} output. The graph is built from a {@link FlowGraphTable} once and then kept up to
+ * date with the nodes added to the flow graph, so that each progress update only costs the nodes added since the
+ * previous one rather than a walk of the whole flow graph.
+ *
+ * <p>
+ * Errors and warnings are only attached to a node when it completes, so they are looked for on the nodes that
+ * precede a new node: the parents of a new node and the start of a block that ends. Like {@link FlowGraphTable}, the
+ * ends of blocks are never rows, even though a failure is attached to them as well.
+ * </p>
+ *
+ * <p>
+ * The depth of a row is the number of blocks enclosing its node, including blocks that are no rows of the output like
+ * {@code node}, as the depth of {@link FlowGraphTable} counts them as well. So the rows are indented the same way as
+ * when walking the whole flow graph.
+ * </p>
+ */
+class IncrementalFlowGraph {
+    private final List<Entry> roots = new ArrayList<>();
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    /**
+     * Creates the graph of the given execution from the nodes that have been added so far.
+     *
+     * @param execution
+     *         the execution
+     * @return the graph
+     */
+    static IncrementalFlowGraph of(final FlowExecution execution) {
+        FlowGraphTable table = new FlowGraphTable(execution);
+        table.build();
+
+        IncrementalFlowGraph graph = new IncrementalFlowGraph();
+        Deque<FlowGraphTable.Row> blockRows = new ArrayDeque<>();
+        Deque<Entry> blocks = new ArrayDeque<>();
+        for (FlowGraphTable.Row row : table.getRows()) {
+            FlowNode node = row.getNode();
+            if (!FlowExecutionAnalyzer.isPartOfOutput(node)) {
+                continue;
+            }
+            while (!blockRows.isEmpty() && blockRows.peek().getTreeDepth() >= row.getTreeDepth()) {
+                blockRows.pop();
+                blocks.pop();
+            }
+            Entry entry = graph.add(node, blocks.peek());
+            if (!node.isActive()) {
+                entry.durationMillis = row.getDurationMillis();
+            }
+            if (entry.isBlock()) {
+                blockRows.push(row);
+                blocks.push(entry);
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * Adds the rows for a node that has been added to the flow graph.
+     *
+     * @param node
+     *         the new node
+     */
+    synchronized void onNewHead(final FlowNode node) {
+        for (FlowNode parent : node.getParents()) {
+            // the start of a block is added when it is created, the end of a block is never a row of the output
+            if (!(parent instanceof BlockStartNode) && !(parent instanceof BlockEndNode)) {
+                addIfPartOfOutput(parent);
+            }
+        }
+        if (node instanceof BlockEndNode) {
+            BlockStartNode start = ((BlockEndNode<?>) node).getStartNode();
+            Entry entry = entries.get(start.getId());
+            if (entry == null) {
+                // a block that is not a stage, e.g. catchError, gets its warning when it ends
+                addIfPartOfOutput(start);
+            }
+            else {
+                entry.durationMillis = TimingAction.getStartTime(node) - TimingAction.getStartTime(start);
+            }
+        }
+        if (node instanceof BlockStartNode) {
+            addIfPartOfOutput(node);
+        }
+    }
+
+    /**
+     * Returns the rows of the output in the order of {@link FlowGraphTable}.
+     *
+     * @return the rows
+     */
+    synchronized List<FlowExecutionAnalyzer.Row> getRows() {
+        List<FlowExecutionAnalyzer.Row> rows = new ArrayList<>(entries.size());
+        addRows(roots, rows);
+        return rows;
+    }
+
+    private static void addRows(final List<Entry> children, final List<FlowExecutionAnalyzer.Row> rows) {
+        for (Entry entry : children) {
+            long durationMillis = entry.durationMillis < 0
+                    ? System.currentTimeMillis() - TimingAction.getStartTime(entry.node) : entry.durationMillis;
+            rows.add(new FlowExecutionAnalyzer.Row(entry.node, entry.treeDepth, durationMillis));
+            addRows(entry.children, rows);
+        }
+    }
+
+    private void addIfPartOfOutput(final FlowNode node) {
+        if (!entries.containsKey(node.getId()) && FlowExecutionAnalyzer.isPartOfOutput(node)) {
+            add(node, findEnclosingBlock(node));
+        }
+    }
+
+    @CheckForNull
+    private Entry findEnclosingBlock(final FlowNode node) {
+        for (BlockStartNode block : node.getEnclosingBlocks()) {
+            Entry entry = entries.get(block.getId());
+            if (entry != null && entry.isBlock()) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    private Entry add(final FlowNode node, @CheckForNull final Entry parent) {
+        Entry entry = new Entry(node);
+        entries.put(node.getId(), entry);
+        List<Entry> siblings = parent == null ? roots : parent.children;
+        // node IDs are assigned in the order the nodes are added, while errors are only found when a node completes
+        int index = siblings.size();
+        while (index > 0 && siblings.get(index - 1).order > entry.order) {
+            index--;
+        }
+        siblings.add(index, entry);
+        return entry;
+    }
+
+    /**
+     * A row of the output with the rows of the blocks and errors it encloses.
+     */
+    private static final class Entry {
+        private final FlowNode node;
+        private final long order;
+        private final boolean block;
+        private final int treeDepth;
+        private final List<Entry> children = new ArrayList<>();
+        private long durationMillis = -1;
+
+        Entry(final FlowNode node) {
+            this.node = node;
+            this.order = parseOrder(node.getId());
+            this.block = FlowExecutionAnalyzer.getStageOrBranchName(node).isPresent();
+            this.treeDepth = node.getEnclosingBlocks().size();
+        }
+
+        private static long parseOrder(final String id) {
+            try {
+                return Long.parseLong(id);
+            }
+            catch (NumberFormatException exception) {
+                return Long.MAX_VALUE;
+            }
+        }
+
+        boolean isBlock() {
+            return block;
+        }
+    }
+}
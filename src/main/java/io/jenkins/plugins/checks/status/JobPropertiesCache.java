@@ -0,0 +1,96 @@
+package io.jenkins.plugins.checks.status;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import hudson.model.Job;
+import io.jenkins.plugins.checks.api.ItemKeyedCache;
+
+/**
+ * Remembers a value resolved for a job, e.g. which status checks properties apply to it, so that resolving it for each
+ * event of a build is a map lookup. The values are keyed by the full name of the job and are invalidated by the
+ * {@link ItemKeyedCache} holding them. The number of hits and misses is counted to judge how effective the cache is.
+ *
+ * @param <T>
+ *         the type of the cached values
+ */
+class JobPropertiesCache<T> {
+    private final Function<Job<?, ?>, T> resolver;
+    private final ItemKeyedCache<T> values;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Creates a cache that is only invalidated explicitly.
+     *
+     * @param resolver
+     *         resolves the value of a job that is not cached
+     */
+    JobPropertiesCache(final Function<Job<?, ?>, T> resolver) {
+        this(resolver, new ItemKeyedCache<>());
+    }
+
+    private JobPropertiesCache(final Function<Job<?, ?>, T> resolver, final ItemKeyedCache<T> values) {
+        this.resolver = resolver;
+        this.values = values;
+    }
+
+    /**
+     * Creates a cache whose values are invalidated whenever a job, or a folder containing it, is saved, deleted or
+     * moved.
+     *
+     * @param resolver
+     *         resolves the value of a job that is not cached
+     * @param <T>
+     *         the type of the cached values
+     * @return the cache
+     */
+    static <T> JobPropertiesCache<T> invalidatedOnItemChanges(final Function<Job<?, ?>, T> resolver) {
+        return new JobPropertiesCache<>(resolver, ItemKeyedCache.invalidatedOnItemChanges());
+    }
+
+    /**
+     * Returns the value of the given job, resolving it if it is not cached.
+     *
+     * @param job
+     *         the job
+     * @return the value
+     */
+    T get(final Job<?, ?> job) {
+        T value = values.get(job.getFullName());
+        if (value != null) {
+            hits.incrementAndGet();
+            return value;
+        }
+        misses.incrementAndGet();
+        long resolvedGeneration = values.getGeneration();
+        value = resolver.apply(job);
+        values.put(job.getFullName(), value, resolvedGeneration);
+        return value;
+    }
+
+    /**
+     * Removes the values of the item with the given full name and of all items within it.
+     *
+     * @param fullName
+     *         the full name of the item
+     */
+    void invalidate(final String fullName) {
+        values.invalidate(fullName);
+    }
+
+    /**
+     * Removes all values.
+     */
+    void invalidateAll() {
+        values.invalidateAll();
+    }
+
+    long getHits() {
+        return hits.get();
+    }
+
+    long getMisses() {
+        return misses.get();
+    }
+}
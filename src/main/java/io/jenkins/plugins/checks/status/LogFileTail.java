@@ -0,0 +1,185 @@
+package io.jenkins.plugins.checks.status;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+import hudson.console.ConsoleNote;
+
+/**
+ * Finds and copies the last lines of a log file using positional reads, so that only the end of the file is read no
+ * matter how large it is. The file is scanned backwards block by block for line breaks until enough lines or bytes
+ * have been found.
+ */
+final class LogFileTail {
+    private static final int BLOCK_SIZE = 8192;
+    private static final byte[] PREAMBLE = ConsoleNote.PREAMBLE_STR.getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] POSTAMBLE = ConsoleNote.POSTAMBLE_STR.getBytes(StandardCharsets.US_ASCII);
+    /** The bytes of a preamble and an encoded note besides letters and digits. */
+    private static final String NOTE_CHARS = "\u001B[:/+=";
+
+    private final long start;
+    private final long end;
+
+    private LogFileTail(final long start, final long end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * Finds the last lines of the given file. Line breaks at the end of the file are not part of the tail.
+     *
+     * @param channel
+     *         the channel of the log file
+     * @param maxLines
+     *         the maximum number of lines of the tail
+     * @param maxBytes
+     *         the maximum number of bytes of the tail; the line this limit falls into is left out, unless it is the
+     *         last one
+     * @return the tail
+     * @throws IOException
+     *         if the file cannot be read
+     */
+    static LogFileTail find(final FileChannel channel, final int maxLines, final long maxBytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BLOCK_SIZE);
+        long end = channel.size();
+        long position = end;
+        boolean trailing = true;
+        int lines = 0;
+        long firstLineStart = -1;
+        while (position > 0) {
+            long blockStart = Math.max(0, position - BLOCK_SIZE);
+            read(channel, buffer, blockStart, (int) (position - blockStart));
+            for (int i = buffer.limit() - 1; i >= 0; i--) {
+                long index = blockStart + i;
+                byte b = buffer.get(i);
+                if (trailing) {
+                    if (b == '\n' || b == '\r') {
+                        end = index;
+                        continue;
+                    }
+                    trailing = false;
+                }
+                if (b != '\n') {
+                    continue;
+                }
+                if (end - index - 1 > maxBytes) {
+                    return limitedBy(channel, firstLineStart, end, maxBytes);
+                }
+                firstLineStart = index + 1;
+                lines++;
+                if (lines == maxLines) {
+                    return new LogFileTail(firstLineStart, end);
+                }
+            }
+            if (!trailing && end - blockStart > maxBytes) {
+                return limitedBy(channel, firstLineStart, end, maxBytes);
+            }
+            position = blockStart;
+        }
+        return new LogFileTail(0, end);
+    }
+
+    /**
+     * Creates the tail for a file with more bytes than allowed: the tail starts with the first line that is
+     * complete, or if even the last line is too long, with its last bytes, starting with the first complete character
+     * that is not part of a console note.
+     */
+    private static LogFileTail limitedBy(final FileChannel channel, final long firstLineStart, final long end,
+            final long maxBytes) throws IOException {
+        if (firstLineStart >= 0) {
+            return new LogFileTail(firstLineStart, end);
+        }
+        return new LogFileTail(skipPartialText(channel, end - maxBytes, end), end);
+    }
+
+    /**
+     * Returns the position of the first complete character at or after the given position within a line. If the
+     * position is within a console note, the note is skipped, as far as its end is within the first block.
+     */
+    private static long skipPartialText(final FileChannel channel, final long position, final long end)
+            throws IOException {
+        // the block starts early enough to find a postamble the position falls into
+        long blockStart = Math.max(0, position - POSTAMBLE.length + 1);
+        ByteBuffer buffer = ByteBuffer.allocate(BLOCK_SIZE);
+        read(channel, buffer, blockStart, (int) Math.min(BLOCK_SIZE, end - blockStart));
+        int offset = (int) (position - blockStart);
+
+        int postamble = indexOf(buffer, POSTAMBLE, Math.max(0, offset - POSTAMBLE.length + 1));
+        if (postamble >= 0 && isNoteText(buffer, offset, postamble)) {
+            offset = Math.max(offset, postamble + POSTAMBLE.length);
+        }
+        // skip the continuation bytes of a UTF-8 character that starts before
+        while (offset < buffer.limit() && (buffer.get(offset) & 0xC0) == 0x80) {
+            offset++;
+        }
+        return Math.min(blockStart + offset, end);
+    }
+
+    /**
+     * Returns whether the given bytes may be the end of the preamble and the Base64 encoded note that precede a
+     * postamble, rather than text followed by the postamble that resets ANSI colors.
+     */
+    private static boolean isNoteText(final ByteBuffer buffer, final int from, final int to) {
+        for (int i = from; i < to; i++) {
+            byte b = buffer.get(i);
+            if (!Character.isLetterOrDigit(b) && NOTE_CHARS.indexOf(b) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(final ByteBuffer buffer, final byte[] bytes, final int from) {
+        for (int i = from; i <= buffer.limit() - bytes.length; i++) {
+            int matched = 0;
+            while (matched < bytes.length && buffer.get(i + matched) == bytes[matched]) {
+                matched++;
+            }
+            if (matched == bytes.length) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static void read(final FileChannel channel, final ByteBuffer buffer, final long position, final int length)
+            throws IOException {
+        buffer.clear().limit(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Log file has been truncated while reading it");
+            }
+        }
+        buffer.flip();
+    }
+
+    /**
+     * Returns whether lines at the start of the file are not part of the tail.
+     *
+     * @return {@code true} if the tail does not start at the start of the file
+     */
+    boolean isTruncated() {
+        return start > 0;
+    }
+
+    /**
+     * Copies the tail from the given file to the given stream.
+     *
+     * @param channel
+     *         the channel of the log file
+     * @param out
+     *         the stream to copy the tail to
+     * @throws IOException
+     *         if the file cannot be read or the stream cannot be written
+     */
+    void copyTo(final FileChannel channel, final OutputStream out) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BLOCK_SIZE);
+        for (long position = start; position < end; position += buffer.limit()) {
+            read(channel, buffer, position, (int) Math.min(BLOCK_SIZE, end - position));
+            out.write(buffer.array(), 0, buffer.limit());
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package io.jenkins.plugins.checks.status;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Coalesces the progress updates of a run: an update is sent when the window after the first update that is not
+ * yet sent has passed, and only the latest update of the window is sent. As updates are deferred, they should compute
+ * their output only when they run, so that the work of the superseded ones is saved as well. Once the run completes,
+ * the pending update is cancelled; an update that is being sent at that time is waited for, so that it never
+ * overtakes the final status.
+ */
+class ProgressUpdateDebouncer {
+    private static final Logger LOGGER = Logger.getLogger(ProgressUpdateDebouncer.class.getName());
+
+    private final long windowMillis;
+    private final Supplier<ScheduledExecutorService> executor;
+    private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+    private final Map<String, Pending> running = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a debouncer.
+     *
+     * @param windowMillis
+     *         the time to wait for further updates, 0 to send each update immediately
+     * @param executor
+     *         provides the executor to send the updates with, only asked for if updates are deferred
+     */
+    ProgressUpdateDebouncer(final long windowMillis, final Supplier<ScheduledExecutorService> executor) {
+        this.windowMillis = windowMillis;
+        this.executor = executor;
+    }
+
+    /**
+     * Submits a progress update of a run, replacing the update of the run that has not been sent yet.
+     *
+     * @param key
+     *         the key of the run
+     * @param update
+     *         the update
+     */
+    void submit(final String key, final Runnable update) {
+        if (windowMillis <= 0) {
+            update.run();
+            return;
+        }
+        boolean[] schedule = {false};
+        pending.compute(key, (k, previous) -> {
+            if (previous == null) {
+                schedule[0] = true;
+                return new Pending(update);
+            }
+            previous.update = update;
+            return previous;
+        });
+        if (schedule[0]) {
+            executor.get().schedule(() -> flush(key), windowMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Cancels the update of a run that has not been sent yet and waits for the update that is being sent, if any.
+     *
+     * @param key
+     *         the key of the run
+     */
+    void cancel(final String key) {
+        Pending update = pending.remove(key);
+        if (update != null) {
+            update.cancel();
+        }
+        Pending sending = running.get(key);
+        if (sending != null) {
+            sending.cancel();
+        }
+    }
+
+    private void flush(final String key) {
+        Pending update = pending.get(key);
+        if (update == null) {
+            return;
+        }
+        // it is marked as running first, so that a concurrent cancel sees it in either map
+        running.put(key, update);
+        pending.remove(key, update);
+        try {
+            update.run();
+        }
+        catch (RuntimeException exception) {
+            LOGGER.log(Level.WARNING, "Failed to publish progress update of " + key, exception);
+        }
+        finally {
+            running.remove(key, update);
+        }
+    }
+
+    /**
+     * The latest update of a run, which is sent unless it has been cancelled.
+     */
+    private static final class Pending {
+        private volatile Runnable update;
+        private boolean cancelled = false;
+
+        Pending(final Runnable update) {
+            this.update = update;
+        }
+
+        synchronized void run() {
+            if (!cancelled) {
+                update.run();
+            }
+        }
+
+        synchronized void cancel() {
+            cancelled = true;
+        }
+    }
+}
@@ -0,0 +1,315 @@
+package io.jenkins.plugins.checks.status;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import io.jenkins.plugins.checks.api.ChecksConclusion;
+
+/**
+ * Records the completed checks that have not been published yet in a journal file, so that they are published after
+ * a restart of the controller rather than leaving the checks "in progress" forever.
+ *
+ * <p>
+ * A check is delivered once its publisher reports that it has been published. A check whose publisher reports a
+ * failure of the SCM platform is retried a few times while the controller runs, and if it still fails, it stays in
+ * the journal until the next restart. A publisher that only logs a failure instead of reporting it by
+ * {@link io.jenkins.plugins.checks.api.ChecksPublisher#publishAsync} cannot be told apart from a successful one, so
+ * its checks are delivered anyway.
+ * </p>
+ *
+ * <p>
+ * The journal is append-only: a record is written when a check is added and another one when it has been delivered.
+ * An added check is durable once {@link #add(String, String, ChecksConclusion)} returns. The threads adding checks at
+ * the same time share one fsync, so that bursts of completions cost a few syncs only. The records of delivered checks
+ * are not synced, as losing them only publishes a check twice. When more checks have been delivered than are pending,
+ * the journal is compacted by writing the pending checks to a new file that replaces it.
+ * </p>
+ *
+ * <p>
+ * Each record is framed by its length and a checksum, so that a record that has been torn by a crash is detected when
+ * the journal is loaded; the journal is truncated before it.
+ * </p>
+ */
+final class PublishOutbox implements Closeable {
+    private static final byte ADDED = 'A';
+    private static final byte DELIVERED = 'D';
+    /** The type, the ID and three strings written by {@link DataOutputStream#writeUTF(String)}. */
+    private static final int MAX_RECORD_LENGTH = Byte.BYTES + Long.BYTES + 3 * (Short.BYTES + 0xFFFF);
+
+    private final Path file;
+    private final int compactionThreshold;
+    /** Serializes the fsyncs and the compaction; it is acquired before the lock of this outbox. */
+    private final Object syncLock = new Object();
+
+    // the fields below are guarded by this
+    private FileChannel channel;
+    private final Map<Long, PendingCheck> pending;
+    private long nextId;
+    private long written = 0;
+    private int delivered = 0;
+
+    // guarded by syncLock
+    private long synced = 0;
+
+    private PublishOutbox(final Path file, final int compactionThreshold, final FileChannel channel,
+            final Map<Long, PendingCheck> pending, final long nextId) {
+        this.file = file;
+        this.compactionThreshold = compactionThreshold;
+        this.channel = channel;
+        this.pending = pending;
+        this.nextId = nextId;
+    }
+
+    /**
+     * Opens the outbox with the given journal, which is created if it does not exist.
+     *
+     * @param file
+     *         the journal file
+     * @param compactionThreshold
+     *         the minimum number of delivered checks before the journal is compacted
+     * @return the outbox
+     * @throws IOException
+     *         if the journal cannot be read or written
+     */
+    static PublishOutbox open(final Path file, final int compactionThreshold) throws IOException {
+        Map<Long, PendingCheck> pending = new LinkedHashMap<>();
+        long nextId = 0;
+        long end = 0;
+        if (Files.exists(file)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                byte[] record;
+                while ((record = readRecord(in)) != null) {
+                    end += Integer.BYTES + record.length + Integer.BYTES;
+                    DataInputStream fields = new DataInputStream(new ByteArrayInputStream(record));
+                    byte type = fields.readByte();
+                    long id = fields.readLong();
+                    if (type == ADDED) {
+                        pending.put(id, new PendingCheck(id, fields.readUTF(), fields.readUTF(),
+                                ChecksConclusion.valueOf(fields.readUTF())));
+                    }
+                    else {
+                        pending.remove(id);
+                    }
+                    nextId = Math.max(nextId, id + 1);
+                }
+            }
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        // drops a record that has been torn by a crash
+        channel.truncate(end);
+        channel.position(end);
+        return new PublishOutbox(file, compactionThreshold, channel, pending, nextId);
+    }
+
+    /**
+     * Reads the next record of the journal.
+     *
+     * @return the record, or {@code null} if the journal ends or the record is incomplete or corrupt
+     */
+    private static byte[] readRecord(final DataInputStream in) throws IOException {
+        try {
+            int length = in.readInt();
+            if (length <= 0 || length > MAX_RECORD_LENGTH) {
+                return null;
+            }
+            byte[] record = new byte[length];
+            in.readFully(record);
+            int checksum = in.readInt();
+            return checksum == checksum(record) ? record : null;
+        }
+        catch (EOFException exception) {
+            return null;
+        }
+    }
+
+    /**
+     * Adds a completed check that has to be published. The check has been written to disk once the method returns.
+     *
+     * @param runId
+     *         the externalizable ID of the run
+     * @param name
+     *         the name of the check
+     * @param conclusion
+     *         the conclusion of the check
+     * @return the pending check
+     * @throws IOException
+     *         if the check cannot be written
+     */
+    PendingCheck add(final String runId, final String name, final ChecksConclusion conclusion) throws IOException {
+        PendingCheck check;
+        long record;
+        synchronized (this) {
+            check = new PendingCheck(nextId++, runId, name, conclusion);
+            write(channel, encode(ADDED, check));
+            pending.put(check.getId(), check);
+            record = ++written;
+        }
+        sync(record);
+        return check;
+    }
+
+    /**
+     * Removes a check that has been published.
+     *
+     * @param check
+     *         the check
+     * @throws IOException
+     *         if the journal cannot be written
+     */
+    void delivered(final PendingCheck check) throws IOException {
+        boolean compact;
+        synchronized (this) {
+            if (pending.remove(check.getId()) == null) {
+                return;
+            }
+            write(channel, encode(DELIVERED, check));
+            written++;
+            delivered++;
+            compact = needsCompaction();
+        }
+        if (compact) {
+            compact();
+        }
+    }
+
+    /**
+     * Returns the checks that have been added but not delivered yet.
+     *
+     * @return the pending checks, in the order they have been added
+     */
+    synchronized List<PendingCheck> getPending() {
+        return new ArrayList<>(pending.values());
+    }
+
+    /**
+     * Waits until the given record has been written to disk. The thread that syncs writes the records of the threads
+     * waiting for it as well.
+     */
+    private void sync(final long record) throws IOException {
+        synchronized (syncLock) {
+            if (synced >= record) {
+                return;
+            }
+            FileChannel current;
+            long target;
+            synchronized (this) {
+                current = channel;
+                target = written;
+            }
+            current.force(false);
+            synced = target;
+        }
+    }
+
+    private boolean needsCompaction() {
+        return delivered >= compactionThreshold && delivered >= pending.size();
+    }
+
+    private void compact() throws IOException {
+        synchronized (syncLock) {
+            synchronized (this) {
+                if (!needsCompaction()) {
+                    return;
+                }
+                Path compacted = file.resolveSibling(file.getFileName() + ".tmp");
+                try (FileChannel out = FileChannel.open(compacted, StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                    for (PendingCheck check : pending.values()) {
+                        write(out, encode(ADDED, check));
+                    }
+                    out.force(false);
+                }
+                channel.close();
+                Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                delivered = 0;
+                // all records written so far are either gone or part of the synced file
+                synced = written;
+            }
+        }
+    }
+
+    private static ByteBuffer encode(final byte type, final PendingCheck check) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(type);
+            out.writeLong(check.getId());
+            if (type == ADDED) {
+                out.writeUTF(check.getRunId());
+                out.writeUTF(check.getName());
+                out.writeUTF(check.getConclusion().name());
+            }
+        }
+        byte[] record = bytes.toByteArray();
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + record.length + Integer.BYTES);
+        buffer.putInt(record.length).put(record).putInt(checksum(record)).flip();
+        return buffer;
+    }
+
+    private static int checksum(final byte[] record) {
+        CRC32 crc = new CRC32();
+        crc.update(record, 0, record.length);
+        return (int) crc.getValue();
+    }
+
+    private static void write(final FileChannel out, final ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * A completed check that has not been published yet.
+     */
+    static final class PendingCheck {
+        private final long id;
+        private final String runId;
+        private final String name;
+        private final ChecksConclusion conclusion;
+
+        PendingCheck(final long id, final String runId, final String name, final ChecksConclusion conclusion) {
+            this.id = id;
+            this.runId = runId;
+            this.name = name;
+            this.conclusion = conclusion;
+        }
+
+        long getId() {
+            return id;
+        }
+
+        String getRunId() {
+            return runId;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        ChecksConclusion getConclusion() {
+            return conclusion;
+        }
+    }
+}
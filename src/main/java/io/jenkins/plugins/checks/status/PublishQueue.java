@@ -0,0 +1,285 @@
+package io.jenkins.plugins.checks.status;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+
+/**
+ * Publishes checks on worker threads, so that the threads reporting the status of a build, e.g. the executor of a
+ * completing run, do not wait for the SCM platform. The publishes with the same key, e.g. those of a check of a run,
+ * are delivered one after another in the order they were submitted, while publishes with different keys are delivered
+ * concurrently by the workers.
+ *
+ * <p>
+ * The number of publishes waiting for a worker is bounded. When the queue is full, a publish is delivered on the
+ * submitting thread once the earlier publishes with its key have been delivered, which slows down the submitting
+ * threads to the pace of the workers. Threads that must never wait, e.g. those holding the lock of the Jenkins queue,
+ * {@link #trySubmit(String, Runnable) try to submit} instead, and their publish is dropped when the queue is full.
+ * How often this happens, how many publishes have been delivered or failed and how many were waiting at most are
+ * counted to judge whether the number of workers fits the load. These statistics are logged whenever the queue starts
+ * to throttle the submitting threads or to drop publishes.
+ * </p>
+ */
+class PublishQueue {
+    private static final Logger LOGGER = Logger.getLogger(PublishQueue.class.getName());
+
+    private final int capacity;
+    private final Executor executor;
+
+    // all fields below are guarded by this
+    private final Map<String, Lane> lanes = new HashMap<>();
+    private int waiting = 0;
+    private int maxWaiting = 0;
+    private long submitted = 0;
+    private long delivered = 0;
+    private long failed = 0;
+    private long throttled = 0;
+    private long dropped = 0;
+    /** Whether a publish has been throttled or dropped since the queue was empty the last time. */
+    private boolean throttling = false;
+
+    /**
+     * Creates a queue.
+     *
+     * @param capacity
+     *         the maximum number of publishes waiting for a worker
+     * @param executor
+     *         the workers that deliver the publishes
+     */
+    PublishQueue(final int capacity, final Executor executor) {
+        this.capacity = capacity;
+        this.executor = executor;
+    }
+
+    /**
+     * Submits a publish, which is delivered after the publishes with the same key that have been submitted before.
+     *
+     * @param key
+     *         the key of the publish, e.g. the ID of the run and the name of the check
+     * @param publish
+     *         publishes the check
+     */
+    void submit(final String key, final Runnable publish) {
+        boolean throttle;
+        Lane started = null;
+        synchronized (this) {
+            submitted++;
+            throttle = waiting >= capacity && awaitLane(key);
+            if (throttle) {
+                throttled++;
+                logFull();
+                LOGGER.log(Level.FINE, () -> "Publish queue is full, publishing on the submitting thread: " + this);
+                // the lane makes the publishes submitted in the meantime wait for this one
+                lanes.put(key, new Lane());
+            }
+            else {
+                started = enqueue(key, publish);
+            }
+        }
+        if (throttle) {
+            deliver(publish);
+            next(key);
+        }
+        else if (started != null) {
+            execute(key, started);
+        }
+    }
+
+    /**
+     * Submits a publish like {@link #submit(String, Runnable)}, unless the queue is full: then the publish is dropped
+     * rather than delivered on the submitting thread, so this method never waits for the publishes of the key nor
+     * for the platform, as long as the executor of this queue does not run the publishes on the submitting thread.
+     *
+     * @param key
+     *         the key of the publish, e.g. the ID of the run and the name of the check
+     * @param publish
+     *         publishes the check
+     * @return {@code true} if the publish has been submitted, {@code false} if it has been dropped
+     */
+    boolean trySubmit(final String key, final Runnable publish) {
+        Lane started;
+        synchronized (this) {
+            submitted++;
+            if (waiting >= capacity) {
+                dropped++;
+                logFull();
+                return false;
+            }
+            started = enqueue(key, publish);
+        }
+        if (started != null) {
+            execute(key, started);
+        }
+        return true;
+    }
+
+    private void logFull() {
+        if (!throttling) {
+            throttling = true;
+            LOGGER.log(Level.INFO, "Publish queue is full, throttling the submitting threads: {0}", this);
+        }
+    }
+
+    /**
+     * Adds a publish to the lane of its key.
+     *
+     * @return the lane if no publish of it is being delivered, so it has to be executed, {@code null} otherwise
+     */
+    @CheckForNull
+    private Lane enqueue(final String key, final Runnable publish) {
+        waiting++;
+        maxWaiting = Math.max(maxWaiting, waiting);
+        Lane lane = lanes.get(key);
+        if (lane != null) {
+            lane.publishes.add(publish);
+            return null;
+        }
+        lane = new Lane();
+        lane.publishes.add(publish);
+        lanes.put(key, lane);
+        return lane;
+    }
+
+    /**
+     * Waits until the publishes with the given key have been delivered.
+     *
+     * @return {@code true} if they have been delivered, {@code false} if the thread has been interrupted
+     */
+    private boolean awaitLane(final String key) {
+        try {
+            while (lanes.containsKey(key)) {
+                wait();
+            }
+            return true;
+        }
+        catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void execute(final String key, final Lane lane) {
+        executor.execute(() -> deliverNext(key, lane));
+    }
+
+    /**
+     * Delivers the next publish of a lane. Each publish is executed as a task of its own, so that the workers take
+     * turns at the lanes.
+     */
+    private void deliverNext(final String key, final Lane lane) {
+        Runnable publish;
+        synchronized (this) {
+            publish = lane.publishes.remove();
+            waiting--;
+            if (waiting == 0) {
+                throttling = false;
+            }
+        }
+        deliver(publish);
+        next(key);
+    }
+
+    /**
+     * Executes the next publish of a lane after one has been delivered, or removes the lane if it is empty.
+     */
+    private void next(final String key) {
+        Lane lane;
+        synchronized (this) {
+            lane = lanes.get(key);
+            if (lane.publishes.isEmpty()) {
+                lanes.remove(key);
+                notifyAll();
+                return;
+            }
+        }
+        execute(key, lane);
+    }
+
+    private void deliver(final Runnable publish) {
+        try {
+            publish.run();
+            synchronized (this) {
+                delivered++;
+            }
+        }
+        catch (RuntimeException exception) {
+            synchronized (this) {
+                failed++;
+            }
+            LOGGER.log(Level.WARNING, "Failed to publish checks", exception);
+        }
+    }
+
+    /**
+     * Waits until all publishes that have been submitted have been delivered.
+     *
+     * @param timeout
+     *         the maximum time to wait
+     * @param unit
+     *         the unit of the timeout
+     * @return {@code true} if all publishes have been delivered, {@code false} if the timeout elapsed before
+     * @throws InterruptedException
+     *         if the thread has been interrupted while waiting
+     */
+    synchronized boolean awaitDelivery(final long timeout, final TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (!lanes.isEmpty()) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return false;
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        }
+        return true;
+    }
+
+    synchronized int getWaiting() {
+        return waiting;
+    }
+
+    synchronized int getMaxWaiting() {
+        return maxWaiting;
+    }
+
+    synchronized long getSubmitted() {
+        return submitted;
+    }
+
+    synchronized long getDelivered() {
+        return delivered;
+    }
+
+    synchronized long getFailed() {
+        return failed;
+    }
+
+    synchronized long getThrottled() {
+        return throttled;
+    }
+
+    synchronized long getDropped() {
+        return dropped;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format(
+                "%d waiting (at most %d of %d), %d submitted, %d delivered, %d failed, %d throttled, %d dropped",
+                waiting, maxWaiting, capacity, submitted, delivered, failed, throttled, dropped);
+    }
+
+    /**
+     * The publishes with the same key. A lane exists while one of its publishes is being delivered or waits for a
+     * worker, and its remaining publishes wait for that one.
+     */
+    private static final class Lane {
+        private final Queue<Runnable> publishes = new ArrayDeque<>();
+    }
+}
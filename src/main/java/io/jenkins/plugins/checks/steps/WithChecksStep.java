@@ -20,6 +20,8 @@ import org.kohsuke.stapler.DataBoundConstructor;
 import java.io.IOException;
 import java.io.Serializable;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -171,19 +173,39 @@ public class WithChecksStep extends Step implements Serializable {
         @Override
         public void stop(final Throwable cause) {
             try {
-                publish(getContext(), new ChecksDetails.ChecksDetailsBuilder()
+                whenPublished(publish(getContext(), new ChecksDetails.ChecksDetailsBuilder()
                         .withName(getName())
                         .withStatus(ChecksStatus.COMPLETED)
-                        .withConclusion(ChecksConclusion.CANCELED));
+                        .withConclusion(ChecksConclusion.CANCELED)), failure -> {
+                            failure.ifPresent(cause::addSuppressed);
+                            getContext().onFailure(cause);
+                        });
             }
             catch (WithChecksPublishException | IOException | InterruptedException e) {
                 cause.addSuppressed(e);
+                getContext().onFailure(cause);
             }
-            getContext().onFailure(cause);
+        }
+
+        /**
+         * Runs the given action once the check has been published, without blocking the calling thread.
+         *
+         * @param result
+         *         the future result of publishing the check
+         * @param action
+         *         the action, which gets the failure if the check could not be published
+         */
+        static void whenPublished(final CompletableFuture<ChecksPublishResult> result,
+                final Consumer<Optional<WithChecksPublishException>> action) {
+            result.whenComplete((published, throwable) -> {
+                Throwable failure = throwable == null ? published.getFailure().orElse(null) : throwable;
+                action.accept(Optional.ofNullable(failure).map(WithChecksPublishException::new));
+            });
         }
 
         @SuppressWarnings("IllegalCatch")
-        private void publish(final StepContext context, final ChecksDetails.ChecksDetailsBuilder builder) throws WithChecksPublishException {
+        private CompletableFuture<ChecksPublishResult> publish(final StepContext context,
+                final ChecksDetails.ChecksDetailsBuilder builder) throws WithChecksPublishException {
             TaskListener listener = TaskListener.NULL;
             try {
                 listener = fixNull(context.get(TaskListener.class), TaskListener.NULL);
@@ -216,8 +238,8 @@ public class WithChecksStep extends Step implements Serializable {
             try {
                 // Use custom details URL if provided, otherwise use the default run URL
                 String detailsURL = StringUtils.defaultIfBlank(step.getDetailsURL(), DisplayURLProvider.get().getRunURL(run));
-                ChecksPublisherFactory.fromRun(run, listener)
-                        .publish(builder.withDetailsURL(detailsURL)
+                return ChecksPublisherFactory.fromRun(run, listener)
+                        .publishAsync(builder.withDetailsURL(detailsURL)
                                 .build());
             }
             catch (RuntimeException e) {
@@ -241,10 +263,10 @@ public class WithChecksStep extends Step implements Serializable {
             @Override
             public void onStart(final StepContext context) {
                 try {
-                    execution.publish(context, new ChecksDetails.ChecksDetailsBuilder()
+                    whenPublished(execution.publish(context, new ChecksDetails.ChecksDetailsBuilder()
                             .withName(info.getName())
                             .withStatus(ChecksStatus.IN_PROGRESS)
-                            .withConclusion(ChecksConclusion.NONE));
+                            .withConclusion(ChecksConclusion.NONE)), failure -> failure.ifPresent(context::onFailure));
                 }
                 catch (WithChecksPublishException e) {
                     context.onFailure(e);
@@ -282,12 +304,15 @@ public class WithChecksStep extends Step implements Serializable {
                                     .withText(t.toString()).build());
                 }
                 try {
-                    execution.publish(context, builder);
+                    whenPublished(execution.publish(context, builder), failure -> {
+                        failure.ifPresent(t::addSuppressed);
+                        context.onFailure(t);
+                    });
                 }
                 catch (WithChecksPublishException e) {
                     t.addSuppressed(e);
+                    context.onFailure(t);
                 }
-                context.onFailure(t);
             }
         }
     }
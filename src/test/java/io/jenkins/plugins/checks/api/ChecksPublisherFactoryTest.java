@@ -7,17 +7,21 @@ import io.jenkins.plugins.checks.api.ChecksPublisher.NullChecksPublisher;
 import io.jenkins.plugins.util.JenkinsFacade;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 class ChecksPublisherFactoryTest {
     @Test
     void shouldReturnNullChecksPublisherForRunWhenNoImplementationIsProvided() {
-        Run<?, ?> run = mock(Run.class);
+        Run<?, ?> run = createRun();
         TaskListener listener = mock(TaskListener.class);
 
         assertThat(ChecksPublisherFactory.fromRun(run, listener,
@@ -27,7 +31,7 @@ class ChecksPublisherFactoryTest {
 
     @Test
     void shouldReturnChecksPublisherForRunWhenImplementationIsProvided() {
-        Run<?, ?> run = mock(Run.class);
+        Run<?, ?> run = createRun();
         TaskListener listener = mock(TaskListener.class);
 
         assertThat(ChecksPublisherFactory.fromRun(run, listener,
@@ -55,6 +59,132 @@ class ChecksPublisherFactoryTest {
                 .isInstanceOf(ChecksPublisherImpl.class);
     }
 
+    @Test
+    void shouldOnlyAskRememberedFactoryOfJob() {
+        Run<?, ?> run = createRun();
+        TaskListener listener = mock(TaskListener.class);
+        CountingChecksPublisherFactory declining = new CountingChecksPublisherFactory(false);
+        CountingChecksPublisherFactory creating = new CountingChecksPublisherFactory(true);
+        JenkinsFacade jenkinsFacade = createJenkinsFacade(declining, creating);
+        ChecksPublisherFactoryCache cache = new ChecksPublisherFactoryCache();
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(ChecksPublisherFactory.fromRun(run, listener, jenkinsFacade, cache))
+                    .isInstanceOf(ChecksPublisherImpl.class);
+        }
+
+        assertThat(declining.getCalls()).isEqualTo(1);
+        assertThat(creating.getCalls()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldTryAllFactoriesIfRememberedFactoryDeclines() {
+        Run<?, ?> run = createRun();
+        TaskListener listener = mock(TaskListener.class);
+        CountingChecksPublisherFactory first = new CountingChecksPublisherFactory(false);
+        CountingChecksPublisherFactory second = new CountingChecksPublisherFactory(true);
+        JenkinsFacade jenkinsFacade = createJenkinsFacade(first, second);
+        ChecksPublisherFactoryCache cache = new ChecksPublisherFactoryCache();
+
+        ChecksPublisherFactory.fromRun(run, listener, jenkinsFacade, cache);
+        second.setCreating(false);
+        first.setCreating(true);
+
+        assertThat(ChecksPublisherFactory.fromRun(run, listener, jenkinsFacade, cache))
+                .isInstanceOf(ChecksPublisherImpl.class);
+        assertThat(first.getCalls()).isEqualTo(2);
+        assertThat(second.getCalls()).isEqualTo(2);
+
+        ChecksPublisherFactory.fromRun(run, listener, jenkinsFacade, cache);
+
+        assertThat(first.getCalls()).isEqualTo(3);
+        assertThat(second.getCalls()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldTryAllFactoriesAfterInvalidation() {
+        Run<?, ?> run = createRun();
+        TaskListener listener = mock(TaskListener.class);
+        CountingChecksPublisherFactory declining = new CountingChecksPublisherFactory(false);
+        CountingChecksPublisherFactory creating = new CountingChecksPublisherFactory(true);
+        JenkinsFacade jenkinsFacade = createJenkinsFacade(declining, creating);
+        ChecksPublisherFactoryCache cache = new ChecksPublisherFactoryCache();
+
+        ChecksPublisherFactory.fromRun(run, listener, jenkinsFacade, cache);
+        cache.invalidate("folder");
+        ChecksPublisherFactory.fromRun(run, listener, jenkinsFacade, cache);
+
+        assertThat(declining.getCalls()).isEqualTo(2);
+
+        ChecksPublisherFactory.fromRun(run, listener, jenkinsFacade, cache);
+        cache.invalidate("folder/job-2");
+        ChecksPublisherFactory.fromRun(run, listener, jenkinsFacade, cache);
+
+        assertThat(declining.getCalls()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldTryFactoriesInOrderForNewRun() {
+        TaskListener listener = mock(TaskListener.class);
+        CountingChecksPublisherFactory first = new CountingChecksPublisherFactory(false);
+        CountingChecksPublisherFactory second = new CountingChecksPublisherFactory(true);
+        JenkinsFacade jenkinsFacade = createJenkinsFacade(first, second);
+        ChecksPublisherFactoryCache cache = new ChecksPublisherFactoryCache();
+
+        ChecksPublisherFactory.fromRun(createRun(1, true), listener, jenkinsFacade, cache);
+        first.setCreating(true);
+        ChecksPublisherFactory.fromRun(createRun(2, true), listener, jenkinsFacade, cache);
+
+        assertThat(first.getCalls()).isEqualTo(2);
+        assertThat(second.getCalls()).as("the factory of the first run is not asked first for the second run")
+                .isEqualTo(1);
+    }
+
+    @Test
+    void shouldNotRememberFactoryOfFinishedOrFinalizedRun() {
+        TaskListener listener = mock(TaskListener.class);
+        CountingChecksPublisherFactory declining = new CountingChecksPublisherFactory(false);
+        CountingChecksPublisherFactory creating = new CountingChecksPublisherFactory(true);
+        JenkinsFacade jenkinsFacade = createJenkinsFacade(declining, creating);
+        ChecksPublisherFactoryCache cache = new ChecksPublisherFactoryCache();
+
+        Run<?, ?> finished = createRun(1, false);
+        ChecksPublisherFactory.fromRun(finished, listener, jenkinsFacade, cache);
+        ChecksPublisherFactory.fromRun(finished, listener, jenkinsFacade, cache);
+
+        assertThat(declining.getCalls()).isEqualTo(2);
+
+        Run<?, ?> running = createRun(2, true);
+        ChecksPublisherFactory.fromRun(running, listener, jenkinsFacade, cache);
+        cache.forgetRun("folder/job#2");
+        ChecksPublisherFactory.fromRun(running, listener, jenkinsFacade, cache);
+
+        assertThat(declining.getCalls()).isEqualTo(4);
+    }
+
+    private Run<?, ?> createRun() {
+        return createRun(1, true);
+    }
+
+    private Run<?, ?> createRun(final int number, final boolean building) {
+        Job<?, ?> job = mock(Job.class);
+        when(job.getFullName()).thenReturn("folder/job");
+        Run<?, ?> run = mock(Run.class);
+        doReturn(job).when(run).getParent();
+        when(run.getExternalizableId()).thenReturn("folder/job#" + number);
+        when(run.isBuilding()).thenReturn(building);
+        return run;
+    }
+
+    private JenkinsFacade createJenkinsFacade(final ChecksPublisherFactory... factories) {
+        JenkinsFacade jenkinsFacade = mock(JenkinsFacade.class);
+
+        when(jenkinsFacade.getExtensionsFor(ChecksPublisherFactory.class))
+                .thenReturn(Arrays.asList(factories));
+
+        return jenkinsFacade;
+    }
+
     private JenkinsFacade createJenkinsFacadeWithNoChecksPublisherFactoryImplementation() {
         JenkinsFacade jenkinsFacade = mock(JenkinsFacade.class);
 
@@ -85,6 +215,29 @@ class ChecksPublisherFactoryTest {
         }
     }
 
+    private static class CountingChecksPublisherFactory extends ChecksPublisherFactory {
+        private final AtomicInteger calls = new AtomicInteger();
+        private final AtomicBoolean creating;
+
+        CountingChecksPublisherFactory(final boolean creating) {
+            this.creating = new AtomicBoolean(creating);
+        }
+
+        @Override
+        protected Optional<ChecksPublisher> createPublisher(final Run<?, ?> run, final TaskListener listener) {
+            calls.incrementAndGet();
+            return creating.get() ? Optional.of(new ChecksPublisherImpl()) : Optional.empty();
+        }
+
+        void setCreating(final boolean creating) {
+            this.creating.set(creating);
+        }
+
+        int getCalls() {
+            return calls.get();
+        }
+    }
+
     private static class ChecksPublisherImpl extends ChecksPublisher {
         @Override
         public void publish(final ChecksDetails details) {
@@ -0,0 +1,59 @@
+package io.jenkins.plugins.checks.api;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import io.jenkins.plugins.checks.api.ChecksDetails.ChecksDetailsBuilder;
+import io.jenkins.plugins.checks.api.ChecksPublishResult.Outcome;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChecksPublisherTest {
+    @Test
+    void shouldPublishAllChecksInOrder() {
+        RecordingChecksPublisher publisher = new RecordingChecksPublisher();
+        ChecksDetails first = new ChecksDetailsBuilder().withName("first").build();
+        ChecksDetails second = new ChecksDetailsBuilder().withName("second").build();
+
+        publisher.publishAll(Arrays.asList(first, second));
+
+        assertThat(publisher.published).containsExactly(first, second);
+    }
+
+    @Test
+    void shouldReturnAcceptedResultWhenPublishingAsynchronously() {
+        RecordingChecksPublisher publisher = new RecordingChecksPublisher();
+        ChecksDetails details = new ChecksDetailsBuilder().withName("check").build();
+
+        assertThat(publisher.publishAsync(details)).isCompletedWithValueMatching(
+                result -> result.getOutcome() == Outcome.ACCEPTED && !result.getFailure().isPresent()
+                        && !result.getLatency().isNegative());
+        assertThat(publisher.published).containsExactly(details);
+    }
+
+    @Test
+    void shouldReturnFailedResultWhenPublishingAsynchronouslyFails() {
+        IllegalStateException failure = new IllegalStateException("platform is down");
+        ChecksPublisher publisher = new ChecksPublisher() {
+            @Override
+            public void publish(final ChecksDetails details) {
+                throw failure;
+            }
+        };
+
+        assertThat(publisher.publishAsync(new ChecksDetailsBuilder().build())).isCompletedWithValueMatching(
+                result -> result.getOutcome() == Outcome.FAILED && result.getFailure().orElse(null) == failure);
+    }
+
+    private static class RecordingChecksPublisher extends ChecksPublisher {
+        private final List<ChecksDetails> published = new ArrayList<>();
+
+        @Override
+        public void publish(final ChecksDetails details) {
+            published.add(details);
+        }
+    }
+}
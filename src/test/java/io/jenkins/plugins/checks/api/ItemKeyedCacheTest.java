@@ -0,0 +1,65 @@
+package io.jenkins.plugins.checks.api;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests the class {@link ItemKeyedCache}.
+ */
+class ItemKeyedCacheTest {
+    private final ItemKeyedCache<String> cache = new ItemKeyedCache<>();
+
+    @Test
+    void shouldInvalidateItemAndJobsAndRunsWithinIt() {
+        put("folder");
+        put("folder/job");
+        put("folder/job#1");
+        put("folder-job");
+        put("folder-job#1");
+
+        cache.invalidate("folder");
+
+        assertThat(cache.get("folder")).isNull();
+        assertThat(cache.get("folder/job")).isNull();
+        assertThat(cache.get("folder/job#1")).isNull();
+        assertThat(cache.get("folder-job")).isEqualTo("folder-job");
+        assertThat(cache.get("folder-job#1")).isEqualTo("folder-job#1");
+
+        cache.invalidate("folder-job");
+
+        assertThat(cache.get("folder-job#1")).isNull();
+    }
+
+    @Test
+    void shouldNotStoreValueResolvedDuringInvalidation() {
+        long resolvedGeneration = cache.getGeneration();
+        cache.invalidate("other");
+        cache.put("job", "stale", resolvedGeneration);
+
+        assertThat(cache.get("job")).isNull();
+
+        cache.put("job", "fresh", cache.getGeneration());
+
+        assertThat(cache.get("job")).isEqualTo("fresh");
+    }
+
+    @Test
+    void shouldRemoveSingleKeyOrAllValues() {
+        put("job");
+        put("job#1");
+
+        cache.remove("job#1");
+
+        assertThat(cache.get("job#1")).isNull();
+        assertThat(cache.get("job")).isEqualTo("job");
+
+        cache.invalidateAll();
+
+        assertThat(cache.get("job")).isNull();
+    }
+
+    private void put(final String key) {
+        cache.put(key, key, cache.getGeneration());
+    }
+}
@@ -5,6 +5,9 @@ import io.jenkins.plugins.checks.api.ChecksPublisher.NullChecksPublisher;
 import io.jenkins.plugins.util.PluginLogger;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
+import java.util.Collections;
+
 import static org.mockito.Mockito.*;
 
 class NullChecksPublisherTest {
@@ -16,4 +19,14 @@ class NullChecksPublisherTest {
 
         verify(logger, times(1)).log("No suitable checks publisher found.");
     }
+
+    @Test
+    void shouldLogOnceWhenInvokingPublishAll() {
+        PluginLogger logger = mock(PluginLogger.class);
+        NullChecksPublisher publisher = new NullChecksPublisher(logger);
+        publisher.publishAll(Arrays.asList(new ChecksDetailsBuilder().build(), new ChecksDetailsBuilder().build()));
+        publisher.publishAll(Collections.emptyList());
+
+        verify(logger, times(1)).log("No suitable checks publisher found.");
+    }
 }
\ No newline at end of file
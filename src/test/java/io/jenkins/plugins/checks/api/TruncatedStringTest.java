@@ -1,10 +1,14 @@
 package io.jenkins.plugins.checks.api;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
@@ -104,6 +108,92 @@ class TruncatedStringTest {
         assertThat(build(chunkOnChars, 20)).isEqualTo("Truncatedcccc\naaaaaa\n");
     }
 
+    @ParameterizedTest
+    @MethodSource("parameters")
+    public void shouldStopRetainingChunksWhenTruncatingEndWithMaxSize(final boolean chunkOnNewlines, final boolean chunkOnChars) {
+        if (chunkOnNewlines) {
+            builder.setChunkOnNewlines();
+        }
+        builder.withMaxSize(20);
+        for (int i = 0; i < 1000; i++) {
+            builder.addText("line " + i % 10 + "\n"); // 7
+        }
+        assertThat(buildRawString()).isEqualTo("line 0\nline 1\nline 2\n");
+        assertThat(build(chunkOnChars, 20)).isEqualTo("line 0\nTruncated");
+        assertThat(build(chunkOnChars, 100)).isEqualTo("line 0\nline 1\nline 2\nTruncated");
+        assertThatThrownBy(() -> builder.setTruncateStart())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Text has already been discarded from the end.");
+    }
+
+    @ParameterizedTest
+    @MethodSource("parameters")
+    public void shouldDiscardOldestChunksWhenTruncatingStartWithMaxSize(final boolean chunkOnNewlines, final boolean chunkOnChars) {
+        if (chunkOnNewlines) {
+            builder.setChunkOnNewlines();
+        }
+        builder.setTruncateStart().withMaxSize(20);
+        for (int i = 0; i < 1000; i++) {
+            builder.addText("line " + i % 10 + "\n"); // 7
+        }
+        assertThat(buildRawString()).isEqualTo("line 7\nline 8\nline 9\n");
+        assertThat(build(chunkOnChars, 20)).isEqualTo("Truncatedline 9\n");
+        assertThat(build(chunkOnChars, 16)).isEqualTo("Truncatedline 9\n");
+        assertThat(build(chunkOnChars, 100)).isEqualTo("Truncatedline 7\nline 8\nline 9\n");
+    }
+
+    @ParameterizedTest
+    @MethodSource("parameters")
+    public void shouldOnlyDropFirstLineIfDiscardingCutIt(final boolean chunkOnNewlines, final boolean chunkOnChars) {
+        if (chunkOnNewlines) {
+            builder.setChunkOnNewlines();
+        }
+        builder.setTruncateStart().withMaxSize(10);
+        builder.addText("line 1\nli"); // 9
+        builder.addText("ne 2\n"); // 5
+        builder.addText("line 3\n"); // 7
+        assertThat(buildRawString()).isEqualTo("ne 2\nline 3\n");
+        assertThat(build(chunkOnChars, 100)).isEqualTo(chunkOnNewlines
+                ? "Truncatedline 3\n" : "Truncatedne 2\nline 3\n");
+    }
+
+    @ParameterizedTest
+    @MethodSource("parameters")
+    public void shouldTruncateMiddle(final boolean chunkOnNewlines, final boolean chunkOnChars) {
+        if (chunkOnNewlines) {
+            builder.setChunkOnNewlines();
+        }
+        builder.setTruncateMiddle(5);
+        builder.addText("aaaa\n"); // 5
+        builder.addText("bbbb\n"); // 5
+        assertThat(build(chunkOnChars, 20)).isEqualTo("aaaa\nbbbb\n");
+        builder.addText("cccc\n"); // 5
+        builder.addText("dddd\n"); // 5
+        builder.addText("eeee\n"); // 5
+        assertThat(build(chunkOnChars, 20)).isEqualTo("aaaa\nTruncatedeeee\n");
+        assertThat(build(chunkOnChars, 18)).isEqualTo("aaaa\nTruncated");
+        assertThat(build(chunkOnChars, 9)).isEqualTo("Truncated");
+
+        assertThatThrownBy(() -> builder.setTruncateStart())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Truncation of the middle has already been set.");
+    }
+
+    @ParameterizedTest
+    @MethodSource("parameters")
+    public void shouldDiscardMiddleChunksWhenTruncatingMiddleWithMaxSize(final boolean chunkOnNewlines, final boolean chunkOnChars) {
+        if (chunkOnNewlines) {
+            builder.setChunkOnNewlines();
+        }
+        builder.setTruncateMiddle(7).withMaxSize(23);
+        for (int i = 0; i < 1000; i++) {
+            builder.addText("line " + i % 10 + "\n"); // 7
+        }
+        assertThat(buildRawString()).isEqualTo("line 0\nline 1\nline 6\nline 7\nline 8\nline 9\n");
+        assertThat(build(chunkOnChars, 23)).isEqualTo("line 0\nTruncatedline 9\n");
+        assertThat(build(chunkOnChars, 16)).isEqualTo("line 0\nTruncated");
+    }
+
     @ParameterizedTest
     @MethodSource("parameters")
     public void shouldHandleEdgeCasesReversed(final boolean chunkOnNewlines, final boolean chunkOnChars) {
@@ -140,6 +230,20 @@ class TruncatedStringTest {
         assertThat(build(chunkOnChars, 20)).isEqualTo(chunkOnNewlines ? "wwww\nxxxx\nTruncated" : "wwww\nTruncated");
     }
 
+    @ParameterizedTest
+    @MethodSource("parameters")
+    public void shouldChunkLinesSpanningSeveralChunks(final boolean truncateStart, final boolean chunkOnChars) {
+        builder.setChunkOnNewlines();
+        if (truncateStart) {
+            builder.setTruncateStart();
+        }
+        builder.addText("aaaaaaaaaaaa\nbb"); // 13 + 2
+        builder.addText("bb\ncc"); // 3 + 2
+        builder.addText("cc\n"); // 3
+        assertThat(build(chunkOnChars, 23)).isEqualTo("aaaaaaaaaaaa\nbbbb\ncccc\n");
+        assertThat(build(chunkOnChars, 22)).isEqualTo(truncateStart ? "Truncatedbbbb\ncccc\n" : "aaaaaaaaaaaa\nTruncated");
+    }
+
     @ParameterizedTest
     @MethodSource("parameters")
     public void shouldTruncateByBytesOrChars(final boolean chunkOnNewlines, final boolean chunkOnChars) {
@@ -157,6 +261,204 @@ class TruncatedStringTest {
         assertThat(build(chunkOnChars, 20)).isEqualTo(chunkOnChars ? "☃☃☃\n🕴️🕴️\n" : "☃☃☃\nTruncated");
     }
 
+    @ParameterizedTest
+    @MethodSource("parameters")
+    public void shouldFillPartialChunks(final boolean chunkOnNewlines, final boolean chunkOnChars) {
+        if (chunkOnNewlines) {
+            builder.setChunkOnNewlines();
+        }
+        builder.setFillPartialChunks();
+        builder.addText("xxxxxxxxx\n"); // 10
+        builder.addText("yyyyyyyyyyyyyyyyyyyy\n"); // 21
+        assertThat(build(chunkOnChars, 25)).isEqualTo("xxxxxxxxx\nyyyyyyTruncated");
+        assertThat(build(chunkOnChars, 12)).isEqualTo("xxxTruncated");
+
+        builder.setTruncateStart();
+        assertThat(build(chunkOnChars, 25)).isEqualTo("Truncatedyyyyyyyyyyyyyyy\n");
+
+        makeBuilder();
+        if (chunkOnNewlines) {
+            builder.setChunkOnNewlines();
+        }
+        builder.setFillPartialChunks().setTruncateMiddle(5);
+        builder.addText("a".repeat(100));
+        assertThat(build(chunkOnChars, 20)).isEqualTo("aaaaaTruncatedaaaaaa");
+    }
+
+    @Test
+    public void shouldFillPartialChunksOnCodePointBoundaries() {
+        builder.setFillPartialChunks();
+        builder.addText("aa😀ébbbbbbbbbb");
+        assertThat(builder.build().buildByBytes(15)).isEqualTo("aa😀Truncated");
+        assertThat(builder.build().buildByBytes(14)).isEqualTo("aaTruncated");
+        assertThat(builder.build().buildByChars(13)).isEqualTo("aa😀Truncated");
+        assertThat(builder.build().buildByChars(12)).isEqualTo("aaTruncated");
+
+        makeBuilder().setFillPartialChunks();
+        builder.addText("aa\uD83D");
+        builder.addText("\uDE00bbbbbbbbbb");
+        assertThat(builder.build().buildByChars(13)).isEqualTo("aa😀Truncated");
+        assertThat(builder.build().buildByChars(12)).isEqualTo("aaTruncated");
+
+        makeBuilder().setFillPartialChunks().setTruncateStart();
+        builder.addText("bbbbbbbbbb\uD83D");
+        builder.addText("\uDE00cc");
+        assertThat(builder.build().buildByChars(13)).isEqualTo("Truncated😀cc");
+        assertThat(builder.build().buildByChars(12)).isEqualTo("Truncatedcc");
+        assertThat(builder.build().buildByBytes(12)).isEqualTo("Truncatedcc");
+    }
+
+    @ParameterizedTest
+    @MethodSource("parameters")
+    public void shouldCollectChunksInParallelStreams(final boolean chunkOnNewlines, final boolean chunkOnChars) {
+        if (chunkOnNewlines) {
+            builder.setChunkOnNewlines();
+        }
+        builder.setTruncateStart().addText("ignored\n");
+        TruncatedString.Builder sequential = new TruncatedString.Builder().withTruncationText(MESSAGE).setTruncateStart();
+        if (chunkOnNewlines) {
+            sequential.setChunkOnNewlines();
+        }
+        for (int i = 0; i < 10_000; i++) {
+            sequential.addText("line ☃ " + i + "\n");
+        }
+
+        TruncatedString collected = IntStream.range(0, 10_000)
+                .parallel()
+                .mapToObj(i -> "line ☃ " + i + "\n")
+                .collect(builder.collector());
+
+        TruncatedString expected = sequential.build();
+        assertThat(collected.toString()).isEqualTo(expected.toString());
+        for (int maxSize : new int[] {10, 100, 1000, 200_000}) {
+            assertThat(chunkOnChars ? collected.buildByChars(maxSize) : collected.buildByBytes(maxSize))
+                    .isEqualTo(chunkOnChars ? expected.buildByChars(maxSize) : expected.buildByBytes(maxSize));
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("parameters")
+    public void shouldRememberBuildResults(final boolean chunkOnNewlines, final boolean chunkOnChars) {
+        if (chunkOnNewlines) {
+            builder.setChunkOnNewlines();
+        }
+        builder.addText("xxxxxxxxx\n"); // 10
+        builder.addText("yyyy\n"); // 5
+        builder.addText("zzzzzz\n"); // 7
+        TruncatedString truncatedString = builder.build();
+
+        String truncated = chunkOnChars ? truncatedString.buildByChars(20) : truncatedString.buildByBytes(20);
+        assertThat(truncated).isEqualTo("xxxxxxxxx\nTruncated");
+        assertThat(chunkOnChars ? truncatedString.buildByChars(20) : truncatedString.buildByBytes(20)).isSameAs(truncated);
+        assertThat(chunkOnChars ? truncatedString.buildByBytes(12) : truncatedString.buildByChars(12)).isEqualTo("Truncated");
+        assertThat(chunkOnChars ? truncatedString.buildByChars(22) : truncatedString.buildByBytes(22))
+                .isSameAs(truncatedString.toString());
+        assertThat(chunkOnChars ? truncatedString.buildByChars(20) : truncatedString.buildByBytes(20)).isSameAs(truncated);
+    }
+
+    @ParameterizedTest
+    @MethodSource("parameters")
+    public void shouldWriteToSinks(final boolean chunkOnNewlines, final boolean truncateStart) throws IOException {
+        if (chunkOnNewlines) {
+            builder.setChunkOnNewlines();
+        }
+        if (truncateStart) {
+            builder.setTruncateStart();
+        }
+        builder.addText("☃☃☃\n"); // 3 + 1
+        builder.addText("xx\uD83D"); // 2 + 1
+        builder.addText("\uDE00\n"); // 1 + 1
+        builder.addText("yyyyyyyyyy\n"); // 11
+        TruncatedString truncatedString = builder.build();
+
+        for (int maxSize : new int[] {9, 15, 20, 25, 100}) {
+            StringBuilder chars = new StringBuilder();
+            truncatedString.writeTo(chars, maxSize);
+            assertThat(chars.toString()).isEqualTo(truncatedString.buildByChars(maxSize));
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            truncatedString.writeUtf8To(bytes, maxSize);
+            assertThat(bytes.toByteArray()).isEqualTo(truncatedString.buildByBytes(maxSize).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("parameters")
+    public void shouldWriteUnpairedSurrogatesLikeGetBytes(final boolean chunkOnNewlines, final boolean truncateStart)
+            throws IOException {
+        if (chunkOnNewlines) {
+            builder.setChunkOnNewlines();
+        }
+        if (truncateStart) {
+            builder.setTruncateStart();
+        }
+        builder.addText("\uDE00a\uD83D\n"); // unpaired low and high surrogates within a chunk
+        builder.addText("b\uD83D"); // unpaired high surrogate, as the next chunk does not start with a low surrogate
+        builder.addText("dddddddddd\n");
+        builder.addText("c\n\uD83D"); // unpaired high surrogate at the end of the text
+        TruncatedString truncatedString = builder.build();
+
+        for (int maxSize : new int[] {9, 12, 100}) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            truncatedString.writeUtf8To(bytes, maxSize);
+            assertThat(bytes.toByteArray()).isEqualTo(truncatedString.buildByBytes(maxSize).getBytes(StandardCharsets.UTF_8));
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        truncatedString.writeUtf8To(bytes, 100);
+        assertThat(bytes.toString(StandardCharsets.UTF_8)).isEqualTo("?a?\nb?dddddddddd\nc\n?");
+    }
+
+    @ParameterizedTest
+    @MethodSource("parameters")
+    public void shouldTruncateCharSequences(final boolean chunkOnNewlines, final boolean truncateStart) {
+        TruncatedString.Builder strings = new TruncatedString.Builder().withTruncationText(MESSAGE);
+        if (chunkOnNewlines) {
+            builder.setChunkOnNewlines();
+            strings.setChunkOnNewlines();
+        }
+        if (truncateStart) {
+            builder.setTruncateStart();
+            strings.setTruncateStart();
+        }
+        for (String chunk : new String[] {"xxxxxxxxx\n", "yy☃y\n", "zz\nzzz\n"}) {
+            builder.addText(new StringBuilder(chunk));
+            strings.addText(chunk);
+        }
+        assertThat(buildRawString()).isEqualTo("xxxxxxxxx\nyy☃y\nzz\nzzz\n");
+        for (int maxSize = 9; maxSize < 30; maxSize++) {
+            assertThat(build(true, maxSize)).isEqualTo(strings.build().buildByChars(maxSize));
+            assertThat(build(false, maxSize)).isEqualTo(strings.build().buildByBytes(maxSize));
+        }
+    }
+
+    @Test
+    public void shouldComputeUtf8LengthWithoutEncoding() {
+        for (String text : new String[] {"", "Hello\n", "☃☃☃\n", "🕴️🕴️\n", "é", "\uD800", "a\uDC00b\uD83D"}) {
+            assertThat(TruncatedString.utf8Length(text, 0, text.length()))
+                    .isEqualTo(text.getBytes(StandardCharsets.UTF_8).length);
+        }
+        assertThat(TruncatedString.utf8Length("x🕴y", 1, 3)).isEqualTo(4);
+    }
+
+    @ParameterizedTest
+    @MethodSource("parameters")
+    public void shouldHandleRepeatedBuildsOfTheSameInstance(final boolean chunkOnNewlines, final boolean chunkOnChars) {
+        if (chunkOnNewlines) {
+            builder.setChunkOnNewlines();
+        }
+        builder.addText("☃☃☃\n"); // 4 chars, 10 bytes
+        builder.addText("xxxx\n"); // 5
+        builder.addText("yyyyyyyyyy\n"); // 11
+
+        TruncatedString truncatedString = builder.build();
+        for (int i = 0; i < 2; i++) {
+            assertThat(chunkOnChars ? truncatedString.buildByChars(19) : truncatedString.buildByBytes(19))
+                    .isEqualTo(chunkOnChars ? "☃☃☃\nxxxx\nTruncated" : "☃☃☃\nTruncated");
+            assertThat(chunkOnChars ? truncatedString.buildByChars(100) : truncatedString.buildByBytes(100))
+                    .isEqualTo("☃☃☃\nxxxx\nyyyyyyyyyy\n");
+        }
+    }
+
     @ParameterizedTest
     @MethodSource("parameters")
     public void shouldHandleLongCharsInTruncationText(final boolean chunkOnNewlines, final boolean chunkOnChars) {
@@ -0,0 +1,43 @@
+package io.jenkins.plugins.checks.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * Runs all JMH benchmarks of this package, reporting the throughput and, using the GC profiler, the allocation rate.
+ * The benchmarks only run with the {@code benchmark} profile: {@code mvn test -Dbenchmark}. A subset can be selected
+ * with a regular expression in the {@code benchmark.include} property, e.g. {@code -Dbenchmark.include=TruncatedString}.
+ * The results are written to {@code target/jmh-result.json}.
+ */
+class BenchmarkRunner {
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void runBenchmarks() throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(BenchmarkRunner.class.getPackage().getName()
+                        + ".*" + System.getProperty("benchmark.include", "") + ".*")
+                .mode(Mode.Throughput)
+                .timeUnit(TimeUnit.SECONDS)
+                .warmupIterations(3)
+                .warmupTime(TimeValue.seconds(2))
+                .measurementIterations(5)
+                .measurementTime(TimeValue.seconds(2))
+                .forks(1)
+                .shouldFailOnError(true)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result("target/jmh-result.json")
+                .build();
+        new Runner(options).run();
+    }
+}
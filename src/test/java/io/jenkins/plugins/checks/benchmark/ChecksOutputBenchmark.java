@@ -0,0 +1,97 @@
+package io.jenkins.plugins.checks.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import io.jenkins.plugins.checks.api.ChecksAnnotation;
+import io.jenkins.plugins.checks.api.ChecksAnnotation.ChecksAnnotationBuilder;
+import io.jenkins.plugins.checks.api.ChecksAnnotation.ChecksAnnotationLevel;
+import io.jenkins.plugins.checks.api.ChecksOutput;
+import io.jenkins.plugins.checks.api.ChecksOutput.ChecksOutputBuilder;
+import io.jenkins.plugins.checks.api.TruncatedString;
+
+/**
+ * Measures building a {@link ChecksOutput} with many annotations, as reported by static analysis tools, and reading
+ * its truncated summary and text.
+ */
+@State(Scope.Benchmark)
+public class ChecksOutputBenchmark {
+    private static final int MAX_SIZE = 65_535;
+
+    @Param({"10000", "50000"})
+    private int annotationCount;
+
+    private final List<ChecksAnnotation> annotations = new ArrayList<>();
+    private TruncatedString text;
+
+    /**
+     * Creates the annotations and a text that lists all of them.
+     */
+    @Setup(Level.Trial)
+    public void createAnnotations() {
+        annotations.clear();
+        TruncatedString.Builder textBuilder = new TruncatedString.Builder().setChunkOnNewlines();
+        for (int i = 0; i < annotationCount; i++) {
+            ChecksAnnotation annotation = new ChecksAnnotationBuilder()
+                    .withPath("src/main/java/io/jenkins/plugins/Class" + i % 100 + ".java")
+                    .withLine(i)
+                    .withAnnotationLevel(ChecksAnnotationLevel.WARNING)
+                    .withMessage("Warning " + i)
+                    .withTitle("Rule " + i % 10)
+                    .build();
+            annotations.add(annotation);
+            textBuilder.addText("- " + annotation.getMessage().orElse("") + "\n");
+        }
+        text = textBuilder.build();
+    }
+
+    /**
+     * Adds the annotations one by one.
+     *
+     * @return the output
+     */
+    @Benchmark
+    public ChecksOutput addAnnotations() {
+        ChecksOutputBuilder builder = new ChecksOutputBuilder()
+                .withTitle("Static analysis")
+                .withSummary("Found " + annotationCount + " warnings")
+                .withText(text);
+        for (ChecksAnnotation annotation : annotations) {
+            builder.addAnnotation(annotation);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Adds all annotations at once.
+     *
+     * @return the output
+     */
+    @Benchmark
+    public ChecksOutput withAnnotations() {
+        return new ChecksOutputBuilder()
+                .withTitle("Static analysis")
+                .withSummary("Found " + annotationCount + " warnings")
+                .withText(text)
+                .withAnnotations(annotations)
+                .build();
+    }
+
+    /**
+     * Copies an output and reads its text truncated to the size limit, as publishers do.
+     *
+     * @return the truncated text
+     */
+    @Benchmark
+    public String copyAndTruncateText() {
+        ChecksOutput output = new ChecksOutput(withAnnotations());
+        return output.getText(MAX_SIZE).orElse("");
+    }
+}
@@ -0,0 +1,105 @@
+package io.jenkins.plugins.checks.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import io.jenkins.plugins.checks.api.TruncatedString;
+
+/**
+ * Measures building a {@link TruncatedString} from chunks of log lines and truncating it to the size limit of the
+ * GitHub Checks API. As build results are remembered, each invocation builds a new instance from the same chunks.
+ */
+@State(Scope.Benchmark)
+public class TruncatedStringBenchmark {
+    private static final int MAX_SIZE = 65_535;
+
+    @Param({"100", "10000"})
+    private int chunkCount;
+
+    @Param({"16", "256"})
+    private int lineLength;
+
+    @Param({"0.0", "0.5"})
+    private double nonAsciiRatio;
+
+    @Param({"false", "true"})
+    private boolean truncateStart;
+
+    @Param({"false", "true"})
+    private boolean chunkOnNewlines;
+
+    private final List<String> chunks = new ArrayList<>();
+
+    /**
+     * Creates the chunks, each a few lines long. The same seed is used for every trial so that all runs of a
+     * parameter combination truncate the same text.
+     */
+    @Setup(Level.Trial)
+    public void createChunks() {
+        Random random = new Random(42);
+        chunks.clear();
+        for (int i = 0; i < chunkCount; i++) {
+            StringBuilder chunk = new StringBuilder();
+            int lines = 1 + random.nextInt(4);
+            for (int line = 0; line < lines; line++) {
+                for (int c = 0; c < lineLength; c++) {
+                    chunk.append(random.nextDouble() < nonAsciiRatio ? '☃' : (char) ('a' + random.nextInt(26)));
+                }
+                chunk.append('\n');
+            }
+            chunks.add(chunk.toString());
+        }
+    }
+
+    /**
+     * Truncates the chunks by bytes.
+     *
+     * @return the truncated text
+     */
+    @Benchmark
+    public String buildByBytes() {
+        return createBuilder().build().buildByBytes(MAX_SIZE);
+    }
+
+    /**
+     * Truncates the chunks by chars.
+     *
+     * @return the truncated text
+     */
+    @Benchmark
+    public String buildByChars() {
+        return createBuilder().build().buildByChars(MAX_SIZE);
+    }
+
+    /**
+     * Truncates the chunks by bytes, with a builder that discards the text that can never be part of the result.
+     *
+     * @return the truncated text
+     */
+    @Benchmark
+    public String buildByBytesWithMaxSize() {
+        return createBuilder().withMaxSize(MAX_SIZE).build().buildByBytes(MAX_SIZE);
+    }
+
+    private TruncatedString.Builder createBuilder() {
+        TruncatedString.Builder builder = new TruncatedString.Builder();
+        if (truncateStart) {
+            builder.setTruncateStart();
+        }
+        if (chunkOnNewlines) {
+            builder.setChunkOnNewlines();
+        }
+        for (String chunk : chunks) {
+            builder.addText(chunk);
+        }
+        return builder;
+    }
+}
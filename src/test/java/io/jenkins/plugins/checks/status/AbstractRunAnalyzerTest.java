@@ -0,0 +1,85 @@
+package io.jenkins.plugins.checks.status;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import hudson.console.AnnotatedLargeText;
+import hudson.model.Run;
+import io.jenkins.plugins.checks.api.ChecksOutput;
+import io.jenkins.plugins.checks.api.TruncatedString;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tests the class {@link AbstractRunAnalyzer}.
+ */
+class AbstractRunAnalyzerTest {
+    private static final String TRUNCATED = "Build log truncated.\n\n";
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void shouldEnlargeWindowIfStrippedTextDoesNotFill() throws IOException {
+        StringBuilder log = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            log.append("line ").append(i / 10).append(i % 10).append('\n'); // 8
+        }
+        // only the last 5 bytes of this line are text, so the first window of 200 bytes yields no complete line
+        log.append("\u001B[31m\u001B[0m".repeat(50)).append("done\n");
+
+        TruncatedString.Builder builder = createAnalyzer().readLog(createLog(log.toString()), 100);
+
+        assertThat(builder).isNotNull();
+        assertThat(builder.build().toString()).startsWith("line ").endsWith("line 18\nline 19\ndone\n");
+    }
+
+    @Test
+    void shouldSkipLineTheWindowStartsIn() throws IOException {
+        // two bytes per char, so that the complete lines fill the window in bytes but not the maximum size in chars
+        String line = "é".repeat(14) + "\n"; // 29 bytes, 15 chars
+        String log = "a".repeat(99) + "\n" + line + line; // the window of 100 bytes starts within the first line
+
+        TruncatedString.Builder builder = createAnalyzer().readLog(createLog(log), 50);
+
+        assertThat(builder).isNotNull();
+        assertThat(builder.build().buildByChars(1000)).isEqualTo(TRUNCATED + line + line);
+    }
+
+    @Test
+    void shouldStripCarriageReturnsOfLineBreaks() throws IOException {
+        TruncatedString.Builder builder = new TruncatedString.Builder();
+        try (OutputStream out = AbstractRunAnalyzer.createLogStream(builder)) {
+            out.write("first\r\nsecond\nlast\r".getBytes(StandardCharsets.UTF_8));
+        }
+
+        assertThat(builder.build().toString()).isEqualTo("first\nsecond\nlast");
+    }
+
+    @Test
+    void shouldReturnNullForEmptyLog() throws IOException {
+        assertThat(createAnalyzer().readLog(createLog(""), 100)).isNull();
+    }
+
+    private AnnotatedLargeText<?> createLog(final String text) throws IOException {
+        Path file = directory.resolve("log");
+        Files.writeString(file, text, StandardCharsets.UTF_8);
+        return new AnnotatedLargeText<>(file.toFile(), StandardCharsets.UTF_8, true, null);
+    }
+
+    private AbstractRunAnalyzer createAnalyzer() {
+        return new AbstractRunAnalyzer(mock(Run.class), false, 0) {
+            @Override
+            public ChecksOutput extractOutput() {
+                return new ChecksOutput.ChecksOutputBuilder().build();
+            }
+        };
+    }
+}
@@ -0,0 +1,60 @@
+package io.jenkins.plugins.checks.status;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests the class {@link AnsiStrippingOutputStream}.
+ */
+class AnsiStrippingOutputStreamTest {
+    @ParameterizedTest
+    @CsvSource({
+            "'plain ☃', 'plain ☃'",
+            "'<ESC>[31mred<ESC>[0m', 'red'",
+            "'<ESC>[1;32mgreen<ESC>[m', 'green'",
+            "'a<ESC>[8mha:AAAAbase64==<ESC>[0mb', 'ab'",
+            "'<ESC>[8mhidden', 'hidden'",
+            "'<ESC><ESC>[1mx', '<ESC>x'",
+            "'x<ESC>[?25hy', 'x<ESC>[?25hy'",
+            "'unterminated <ESC>[12', 'unterminated <ESC>[12'"
+    })
+    void shouldStripColorCodesAndConsoleNotes(final String text, final String expected) throws IOException {
+        String input = text.replace("<ESC>", "\u001B");
+        String output = expected.replace("<ESC>", "\u001B");
+
+        assertThat(AnsiStrippingOutputStream.strip(input)).isEqualTo(output);
+        assertThat(writeByteByByte(input)).isEqualTo(output);
+    }
+
+    @Test
+    void shouldNotCopyTextWithoutEscapes() {
+        String text = "no escapes\n";
+
+        assertThat(AnsiStrippingOutputStream.strip(text)).isSameAs(text);
+    }
+
+    @Test
+    void shouldKeepLongSequences() {
+        String text = "\u001B[" + "1;".repeat(100) + "m";
+
+        assertThat(AnsiStrippingOutputStream.strip(text)).isEqualTo(text);
+    }
+
+    private String writeByteByByte(final String text) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new AnsiStrippingOutputStream(bytes)) {
+            for (byte b : text.getBytes(StandardCharsets.UTF_8)) {
+                out.write(b);
+            }
+        }
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,49 @@
+package io.jenkins.plugins.checks.status;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import hudson.model.Run;
+import hudson.model.TaskListener;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests the class {@link BuildLogListener}.
+ */
+class BuildLogListenerTest {
+    @Test
+    void shouldWriteToBuildLogOnlyWhileItIsWritten() {
+        ByteArrayOutputStream buildLog = new ByteArrayOutputStream();
+        TaskListener listener = mock(TaskListener.class);
+        when(listener.getLogger()).thenReturn(new PrintStream(buildLog, true, StandardCharsets.UTF_8));
+        Run<?, ?> run = mock(Run.class);
+        when(run.getCharset()).thenReturn(StandardCharsets.UTF_8);
+        when(run.isLogUpdated()).thenReturn(true);
+
+        // publishers fetch the logger once when they are created
+        PrintStream logger = new BuildLogListener(run, listener).getLogger();
+        logger.println("while running");
+        when(run.isLogUpdated()).thenReturn(false);
+        logger.println("after completion");
+
+        assertThat(buildLog.toString(StandardCharsets.UTF_8)).isEqualTo("while running" + System.lineSeparator());
+    }
+
+    @Test
+    void shouldWriteToSystemLogWithoutListener() {
+        Run<?, ?> run = mock(Run.class);
+        when(run.getCharset()).thenReturn(StandardCharsets.UTF_8);
+        when(run.isLogUpdated()).thenReturn(true);
+
+        PrintStream logger = new BuildLogListener(run, null).getLogger();
+        logger.println("no build log");
+
+        assertThat(logger.checkError()).isFalse();
+    }
+}
@@ -516,6 +516,41 @@ class BuildStatusChecksPublisherITest extends IntegrationTestWithJenkinsPerTest
         });
     }
 
+    /**
+     * Tests that FreeStyleBuildAnalyzer keeps the start and the end of a log when a log head size is configured.
+     */
+    @Test
+    public void shouldTruncateMiddleOfFreeStyleBuildLog() throws Exception {
+        getProperties().setApplicable(true);
+        getProperties().setSkipped(false);
+        getProperties().setSuppressLogs(false);
+        getProperties().setLogHeadSize(1000);
+        getProperties().setName("FreeStyle Status");
+
+        var project = createFreeStyleProject();
+        String log = lineTruncationLog();
+        if (Functions.isWindows()) {
+            project.getBuildersList().add(new BatchFile(log));
+        }
+        else {
+            project.getBuildersList().add(new Shell(log));
+        }
+
+        buildSuccessfully(project);
+        this.getJenkins().waitUntilNoActivity();
+        List<ChecksDetails> checksDetails = getFactory().getPublishedChecks();
+        ChecksDetails details = checksDetails.get(checksDetails.size() - 1);
+        assertThat(details.getOutput()).isPresent().get().satisfies(output -> {
+            assertThat(output.getSummary()).isPresent().get().satisfies(summary -> {
+                assertThat(summary).contains("Line 1:");
+                assertThat(summary).contains("Build log truncated.");
+                assertThat(summary).contains("Line 1999:");
+                assertThat(summary).doesNotContain("Line 1000:");
+                assertThat(summary.length()).isLessThanOrEqualTo(65_535);
+            });
+        });
+    }
+
     private static String characterTruncationLog() {
         int logLines = 1000;
         String logSuffix = "This is a very long log line that will be repeated many times to test truncation. Adding some extra system information here.";
@@ -556,6 +591,7 @@ class BuildStatusChecksPublisherITest extends IntegrationTestWithJenkinsPerTest
         private boolean skipped;
         private String name;
         private boolean suppressLogs;
+        private int logHeadSize;
 
         public void setApplicable(final boolean applicable) {
             this.applicable = applicable;
@@ -573,6 +609,10 @@ class BuildStatusChecksPublisherITest extends IntegrationTestWithJenkinsPerTest
             this.suppressLogs = suppressLogs;
         }
 
+        public void setLogHeadSize(final int logHeadSize) {
+            this.logHeadSize = logHeadSize;
+        }
+
         @Override
         public boolean isApplicable(final Job<?, ?> job) {
             return applicable;
@@ -592,5 +632,10 @@ class BuildStatusChecksPublisherITest extends IntegrationTestWithJenkinsPerTest
         public boolean isSuppressLogs(final Job<?, ?> job) {
             return suppressLogs;
         }
+
+        @Override
+        public int getLogHeadSize(final Job<?, ?> job) {
+            return logHeadSize;
+        }
     }
 }
@@ -0,0 +1,116 @@
+package io.jenkins.plugins.checks.status;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+
+import io.jenkins.plugins.checks.api.ChecksConclusion;
+import io.jenkins.plugins.checks.api.ChecksDetails;
+import io.jenkins.plugins.checks.api.ChecksDetails.ChecksDetailsBuilder;
+import io.jenkins.plugins.checks.api.ChecksPublishResult;
+import io.jenkins.plugins.checks.api.ChecksPublishResult.Outcome;
+import io.jenkins.plugins.checks.api.ChecksPublisher;
+import io.jenkins.plugins.checks.api.ChecksStatus;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests the class {@link CoalescingChecksPublisher}.
+ */
+class CoalescingChecksPublisherTest {
+    private final Queue<Runnable> tasks = new ArrayDeque<>();
+    private final List<ChecksDetails> published = new ArrayList<>();
+    private final CoalescingChecksPublisher.PendingChecks pendingChecks = new CoalescingChecksPublisher.PendingChecks();
+
+    @Test
+    void shouldOnlyPublishLatestWaitingUpdate() {
+        ChecksDetails first = createDetails("check", ChecksStatus.IN_PROGRESS);
+        ChecksDetails second = createDetails("check", ChecksStatus.IN_PROGRESS);
+        ChecksDetails third = createDetails("check", ChecksStatus.IN_PROGRESS);
+
+        createPublisher("job#1").publish(first);
+        createPublisher("job#1").publish(second);
+
+        assertThat(tasks).hasSize(1);
+
+        runTasks();
+        createPublisher("job#1").publish(third);
+        runTasks();
+
+        assertThat(published).containsExactly(second, third);
+        assertThat(pendingChecks.getSuperseded()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldKeepChecksOfRunsAndNamesApart() {
+        ChecksDetails first = createDetails("check", ChecksStatus.IN_PROGRESS);
+        ChecksDetails other = createDetails("other", ChecksStatus.IN_PROGRESS);
+        ChecksDetails otherRun = createDetails("check", ChecksStatus.IN_PROGRESS);
+
+        createPublisher("job#1").publish(first);
+        createPublisher("job#1").publish(other);
+        createPublisher("job#2").publish(otherRun);
+        runTasks();
+
+        assertThat(published).containsExactly(first, other, otherRun);
+        assertThat(pendingChecks.getSuperseded()).isZero();
+    }
+
+    @Test
+    void shouldNeverDropCompletedCheck() {
+        ChecksDetails completed = createDetails("check", ChecksStatus.COMPLETED);
+
+        createPublisher("job#1").publish(createDetails("check", ChecksStatus.IN_PROGRESS));
+        createPublisher("job#1").publish(completed);
+        createPublisher("job#1").publish(createDetails("check", ChecksStatus.IN_PROGRESS));
+        runTasks();
+
+        assertThat(published).containsExactly(completed);
+        assertThat(pendingChecks.getSuperseded()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldReportOutcomeOfChecks() {
+        CompletableFuture<ChecksPublishResult> superseded
+                = createPublisher("job#1").publishAsync(createDetails("check", ChecksStatus.IN_PROGRESS));
+        CompletableFuture<ChecksPublishResult> completed
+                = createPublisher("job#1").publishAsync(createDetails("check", ChecksStatus.COMPLETED));
+        CompletableFuture<ChecksPublishResult> late
+                = createPublisher("job#1").publishAsync(createDetails("check", ChecksStatus.IN_PROGRESS));
+
+        assertThat(superseded).isCompletedWithValueMatching(result -> result.getOutcome() == Outcome.DEDUPLICATED);
+        assertThat(late).isCompletedWithValueMatching(result -> result.getOutcome() == Outcome.DEDUPLICATED);
+        assertThat(completed).isNotDone();
+
+        runTasks();
+
+        assertThat(completed).isCompletedWithValueMatching(result -> result.getOutcome() == Outcome.ACCEPTED);
+    }
+
+    private CoalescingChecksPublisher createPublisher(final String runId) {
+        return new CoalescingChecksPublisher(new ChecksPublisher() {
+            @Override
+            public void publish(final ChecksDetails details) {
+                published.add(details);
+            }
+        }, runId, tasks::add, pendingChecks);
+    }
+
+    private ChecksDetails createDetails(final String name, final ChecksStatus status) {
+        return new ChecksDetailsBuilder()
+                .withName(name)
+                .withStatus(status)
+                .withConclusion(status == ChecksStatus.COMPLETED ? ChecksConclusion.SUCCESS : ChecksConclusion.NONE)
+                .build();
+    }
+
+    private void runTasks() {
+        while (!tasks.isEmpty()) {
+            tasks.remove().run();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package io.jenkins.plugins.checks.status;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static io.jenkins.plugins.checks.status.FlowExecutionAnalyzer.MIN_LOG_SIZE;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests the class {@link FlowExecutionAnalyzer}.
+ */
+class FlowExecutionAnalyzerTest {
+    private static final int MAX_SIZE = 65_535;
+    private static final int NO_LOG = -1;
+
+    private final ExecutorService executor = FlowExecutionAnalyzer.createLogReaders(2, 10);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void shutDownExecutor() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldReadManySmallLogsCompletely() {
+        int[] summaryLengths = new int[10];
+        long[] logLengths = new long[10];
+        Arrays.fill(summaryLengths, 100);
+        Arrays.fill(logLengths, 1000);
+
+        int[] logSizes = FlowExecutionAnalyzer.planLogSizes(summaryLengths, logLengths);
+
+        assertThat(Arrays.stream(logSizes)).allMatch(size -> size >= 1000);
+    }
+
+    @Test
+    void shouldSkipNodesWithoutSummaryOrLog() {
+        int[] logSizes = FlowExecutionAnalyzer.planLogSizes(new int[] {0, 100, 100}, new long[] {NO_LOG, NO_LOG, 1000});
+
+        assertThat(logSizes[0]).isZero();
+        assertThat(logSizes[1]).isZero();
+        assertThat(logSizes[2]).isGreaterThanOrEqualTo(1000);
+    }
+
+    @Test
+    void shouldGiveHugeLogTheSpaceLeft() {
+        int[] smallFirst = FlowExecutionAnalyzer.planLogSizes(new int[] {100, 100}, new long[] {1000, 100_000_000});
+
+        assertThat(smallFirst[0]).isGreaterThanOrEqualTo(1000);
+        assertThat(smallFirst[1]).isBetween(MAX_SIZE - 2 * 100 - 1000 - 2 * 200, MAX_SIZE - 2 * 100 - 1000);
+
+        int[] hugeFirst = FlowExecutionAnalyzer.planLogSizes(new int[] {100, 100}, new long[] {100_000_000, 1000});
+
+        assertThat(hugeFirst[0]).isBetween(MAX_SIZE - 100 - 200, MAX_SIZE - 100);
+        assertThat(hugeFirst[1]).as("no space is left for the second log").isZero();
+    }
+
+    @Test
+    void shouldOnlyReadLogsThatFitIfThereAreMoreLogsThanSpace() {
+        int nodes = MAX_SIZE / MIN_LOG_SIZE + 45;
+        int[] summaryLengths = new int[nodes];
+        long[] logLengths = new long[nodes];
+        Arrays.fill(summaryLengths, 100);
+        Arrays.fill(logLengths, 1000);
+
+        int[] logSizes = FlowExecutionAnalyzer.planLogSizes(summaryLengths, logLengths);
+
+        int read = 0;
+        while (read < nodes && logSizes[read] > 0) {
+            read++;
+        }
+        assertThat(read).isPositive().isLessThan(nodes);
+        assertThat(Arrays.stream(logSizes, 0, read)).allMatch(size -> size >= MIN_LOG_SIZE);
+        assertThat(Arrays.copyOfRange(logSizes, read, nodes)).containsOnly(0);
+
+        long planned = 0;
+        for (int i = 0; i < read; i++) {
+            planned += summaryLengths[i] + Math.min(logSizes[i], logLengths[i]);
+        }
+        assertThat(planned).isLessThanOrEqualTo(MAX_SIZE);
+    }
+
+    @Test
+    void shouldReturnLogsInOrderOfReads() {
+        CountDownLatch lastStarted = new CountDownLatch(1);
+        List<Callable<String>> reads = List.of(
+                () -> lastStarted.await(10, TimeUnit.SECONDS) ? "first" : "timeout",
+                () -> {
+                    lastStarted.countDown();
+                    return "second";
+                });
+
+        assertThat(FlowExecutionAnalyzer.readConcurrently(reads, executor, 10, TimeUnit.SECONDS))
+                .containsExactly("first", "second");
+    }
+
+    @Test
+    void shouldLeaveOutLogsNotReadBeforeTimeout() {
+        List<Callable<String>> reads = List.of(
+                () -> "fast",
+                () -> release.await(10, TimeUnit.SECONDS) ? "slow" : "timeout",
+                () -> {
+                    throw new IOException("failed");
+                },
+                () -> release.await(10, TimeUnit.SECONDS) ? "slow" : "timeout");
+
+        long start = System.nanoTime();
+        List<String> logs = FlowExecutionAnalyzer.readConcurrently(reads, executor, 200, TimeUnit.MILLISECONDS);
+
+        assertThat(logs).containsExactly("fast", null, null, null);
+        assertThat(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start))
+                .as("all logs are waited for until the same deadline").isLessThan(5);
+    }
+
+    @Test
+    void shouldLeaveOutLogsRejectedByFullQueue() {
+        ExecutorService single = FlowExecutionAnalyzer.createLogReaders(1, 1);
+        try {
+            AtomicBoolean rejectedRead = new AtomicBoolean();
+            List<Callable<String>> reads = List.of(
+                    () -> release.await(10, TimeUnit.SECONDS) ? "blocked" : "timeout",
+                    () -> "queued",
+                    () -> {
+                        rejectedRead.set(true);
+                        return "rejected";
+                    });
+
+            long start = System.nanoTime();
+            List<String> logs = FlowExecutionAnalyzer.readConcurrently(reads, single, 200, TimeUnit.MILLISECONDS);
+
+            assertThat(logs).containsExactly(null, null, null);
+            assertThat(rejectedRead).as("the submitting thread never reads a log itself").isFalse();
+            assertThat(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start)).isLessThan(5);
+        }
+        finally {
+            single.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package io.jenkins.plugins.checks.status;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jenkinsci.plugins.workflow.cps.CpsFlowDefinition;
+import org.jenkinsci.plugins.workflow.flow.FlowExecution;
+import org.jenkinsci.plugins.workflow.flow.FlowExecutionOwner;
+import org.jenkinsci.plugins.workflow.flow.GraphListener;
+import org.jenkinsci.plugins.workflow.graph.FlowNode;
+import org.jenkinsci.plugins.workflow.job.WorkflowJob;
+import org.jenkinsci.plugins.workflow.job.WorkflowRun;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.TestExtension;
+
+import hudson.model.Result;
+import io.jenkins.plugins.checks.api.ChecksOutput;
+import io.jenkins.plugins.util.IntegrationTestWithJenkinsPerTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests that the {@link IncrementalFlowGraph} yields the same output as walking the whole flow graph.
+ */
+class IncrementalFlowGraphITest extends IntegrationTestWithJenkinsPerTest {
+    /**
+     * Runs a pipeline whose error propagates through the ends of nested stages, which must not become rows.
+     */
+    @Test
+    void shouldRenderSameOutputAsFlowGraphTable() {
+        WorkflowJob job = createPipeline();
+        job.setDefinition(new CpsFlowDefinition(""
+                + "node {\n"
+                + "  stage('Warns') {\n"
+                + "    unstable('something went wrong')\n"
+                + "  }\n"
+                + "  stage('Outer') {\n"
+                + "    stage('Inner') {\n"
+                + "      echo 'failing'\n"
+                + "      error('a fatal error occurs')\n"
+                + "    }\n"
+                + "  }\n"
+                + "}", true));
+
+        ChecksOutput actual = assertSameOutput((WorkflowRun) buildWithResult(job, Result.FAILURE));
+
+        assertThat(actual.getTitle()).contains("Outer/Inner: error in 'error' step");
+        assertThat(actual.getSummary()).isPresent().get().asString()
+                .containsOnlyOnce("Error in `error` step")
+                .doesNotContain("Error in `stage` step");
+    }
+
+    /**
+     * Runs a scripted pipeline whose stages are enclosed by different numbers of blocks that are no stages, e.g. the
+     * blocks of {@code node}, which count for the indentation of the rows as well.
+     */
+    @Test
+    void shouldIndentStagesAtDifferentBlockDepthsLikeFlowGraphTable() {
+        WorkflowJob job = createPipeline();
+        job.setDefinition(new CpsFlowDefinition(""
+                + "stage('First') {\n"
+                + "  unstable('something went wrong')\n"
+                + "}\n"
+                + "node {\n"
+                + "  stage('Second') {\n"
+                + "    echo 'failing'\n"
+                + "    error('a fatal error occurs')\n"
+                + "  }\n"
+                + "}", true));
+
+        ChecksOutput actual = assertSameOutput((WorkflowRun) buildWithResult(job, Result.FAILURE));
+
+        assertThat(actual.getText()).isPresent().get().asString().contains("Second");
+    }
+
+    /**
+     * Asserts that the rows kept up to date by the graph listener yield the same output as walking the whole flow
+     * graph of the completed run.
+     */
+    private ChecksOutput assertSameOutput(final WorkflowRun run) {
+        FlowExecution execution = run.getExecution();
+        assertThat(execution).isNotNull();
+        IncrementalFlowGraph graph = getJenkins().getInstance().getExtensionList(GraphRecorder.class).get(0)
+                .getGraph(execution.getOwner());
+        assertThat(graph).isNotNull();
+
+        FlowExecutionAnalyzer analyzer = new FlowExecutionAnalyzer(run, execution, false, 0);
+        ChecksOutput expected = analyzer.extractOutput();
+        ChecksOutput actual = analyzer.extractOutput(graph.getRows());
+
+        assertThat(actual.getTitle()).isEqualTo(expected.getTitle());
+        assertThat(actual.getSummary()).isEqualTo(expected.getSummary());
+        assertThat(actual.getText().map(IncrementalFlowGraphITest::withoutDurations))
+                .isEqualTo(expected.getText().map(IncrementalFlowGraphITest::withoutDurations));
+        return actual;
+    }
+
+    private static String withoutDurations(final String text) {
+        return text.replaceAll("\\*\\([^)]*\\)\\*", "*(duration)*");
+    }
+
+    /**
+     * Keeps the graph of each execution up to date with its new nodes, like the progress updates do.
+     */
+    @TestExtension
+    public static class GraphRecorder implements GraphListener {
+        private final Map<FlowExecutionOwner, IncrementalFlowGraph> graphs = new ConcurrentHashMap<>();
+
+        IncrementalFlowGraph getGraph(final FlowExecutionOwner owner) {
+            return graphs.get(owner);
+        }
+
+        @Override
+        public void onNewHead(final FlowNode node) {
+            FlowExecution execution = node.getExecution();
+            IncrementalFlowGraph graph = graphs.get(execution.getOwner());
+            if (graph == null) {
+                // the graph is created from the nodes so far, which include the new node
+                graphs.put(execution.getOwner(), IncrementalFlowGraph.of(execution));
+            }
+            else {
+                graph.onNewHead(node);
+            }
+        }
+    }
+}
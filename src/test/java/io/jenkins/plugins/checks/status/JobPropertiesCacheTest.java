@@ -0,0 +1,56 @@
+package io.jenkins.plugins.checks.status;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import hudson.model.Job;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests the class {@link JobPropertiesCache}.
+ */
+class JobPropertiesCacheTest {
+    private final AtomicInteger resolved = new AtomicInteger();
+    private final JobPropertiesCache<String> cache = new JobPropertiesCache<>(
+            job -> job.getFullName() + "#" + resolved.incrementAndGet());
+
+    @Test
+    void shouldResolveEachJobOnce() {
+        Job<?, ?> job = createJob("folder/job");
+        Job<?, ?> other = createJob("other");
+
+        assertThat(cache.get(job)).isEqualTo("folder/job#1");
+        assertThat(cache.get(job)).isEqualTo("folder/job#1");
+        assertThat(cache.get(other)).isEqualTo("other#2");
+
+        assertThat(cache.getHits()).isEqualTo(1);
+        assertThat(cache.getMisses()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldInvalidateJobAndJobsWithinIt() {
+        Job<?, ?> job = createJob("folder/job");
+        Job<?, ?> sibling = createJob("folder-job");
+        cache.get(job);
+        cache.get(sibling);
+
+        cache.invalidate("folder");
+
+        assertThat(cache.get(job)).isEqualTo("folder/job#3");
+        assertThat(cache.get(sibling)).isEqualTo("folder-job#2");
+
+        cache.invalidateAll();
+
+        assertThat(cache.get(sibling)).isEqualTo("folder-job#4");
+    }
+
+    private Job<?, ?> createJob(final String fullName) {
+        Job<?, ?> job = mock(Job.class);
+        when(job.getFullName()).thenReturn(fullName);
+        return job;
+    }
+}
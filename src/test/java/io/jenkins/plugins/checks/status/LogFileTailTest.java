@@ -0,0 +1,87 @@
+package io.jenkins.plugins.checks.status;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import hudson.console.ConsoleNote;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests the class {@link LogFileTail}.
+ */
+class LogFileTailTest {
+    @TempDir
+    private Path directory;
+
+    @Test
+    void shouldCopyCompleteLogWithoutTrailingLineBreaks() throws IOException {
+        assertThat(tail("a\nb\nc\n\n", 3, 100)).isEqualTo("a\nb\nc");
+        assertThat(tail("a\nb\nc", 5, 100)).isEqualTo("a\nb\nc");
+        assertThat(tail("", 5, 100)).isEmpty();
+    }
+
+    @Test
+    void shouldLimitNumberOfLines() throws IOException {
+        assertThat(tail("a\nb\nc\n", 2, 100)).isEqualTo("truncated:b\nc");
+    }
+
+    @Test
+    void shouldLimitNumberOfBytesOnLineBreaks() throws IOException {
+        assertThat(tail("aaaa\nbb\ncc\n", 5, 5)).isEqualTo("truncated:bb\ncc");
+    }
+
+    @Test
+    void shouldCutLastLineIfTooLong() throws IOException {
+        assertThat(tail("xxxxxxxxxx\n", 5, 4)).isEqualTo("truncated:xxxx");
+    }
+
+    @Test
+    void shouldStartCutLastLineWithCompleteCharacter() throws IOException {
+        String line = "é".repeat(10) + "\n"; // 2 bytes per char
+
+        assertThat(tail(line, 5, 5)).isEqualTo("truncated:" + "é".repeat(2));
+        assertThat(tail(line, 5, 6)).isEqualTo("truncated:" + "é".repeat(3));
+    }
+
+    @Test
+    void shouldSkipConsoleNoteCutLastLineStartsIn() throws IOException {
+        String note = ConsoleNote.PREAMBLE_STR + "////4ABCdef+/=" + ConsoleNote.POSTAMBLE_STR;
+        String log = "first " + note + "after the note\n";
+
+        for (int maxBytes = 16; maxBytes <= 38; maxBytes++) { // from the postamble to the preamble
+            assertThat(tail(log, 5, maxBytes)).as("max bytes %d", maxBytes).isEqualTo("truncated:after the note");
+        }
+        assertThat(tail("some red text" + ConsoleNote.POSTAMBLE_STR + " and more\n", 5, 20))
+                .as("an ANSI reset after text is no end of a note")
+                .isEqualTo("truncated:ed text" + ConsoleNote.POSTAMBLE_STR + " and more");
+    }
+
+    @Test
+    void shouldReadTailOfLogLargerThanBlock() throws IOException {
+        StringBuilder log = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            log.append("line ").append(i).append('\n');
+        }
+
+        assertThat(tail(log.toString(), 1000, 1_000_000)).startsWith("truncated:line 4000\n").endsWith("line 4999");
+        assertThat(tail(log.toString(), 1000, 20)).isEqualTo("truncated:line 4998\nline 4999");
+    }
+
+    private String tail(final String log, final int maxLines, final long maxBytes) throws IOException {
+        Path file = Files.writeString(directory.resolve("log"), log);
+        try (FileChannel channel = FileChannel.open(file)) {
+            LogFileTail tail = LogFileTail.find(channel, maxLines, maxBytes);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            tail.copyTo(channel, out);
+            return (tail.isTruncated() ? "truncated:" : "") + out.toString(StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package io.jenkins.plugins.checks.status;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * Tests the class {@link ProgressUpdateDebouncer}.
+ */
+class ProgressUpdateDebouncerTest {
+    private final List<String> published = new ArrayList<>();
+    private final ScheduledExecutorService executor = mock(ScheduledExecutorService.class);
+
+    @Test
+    void shouldPublishImmediatelyWithoutWindow() {
+        ProgressUpdateDebouncer debouncer = new ProgressUpdateDebouncer(0, () -> executor);
+
+        debouncer.submit("run#1", () -> published.add("first"));
+        debouncer.submit("run#1", () -> published.add("second"));
+
+        assertThat(published).containsExactly("first", "second");
+        verifyNoInteractions(executor);
+    }
+
+    @Test
+    void shouldOnlyPublishLatestUpdateOfWindow() {
+        ProgressUpdateDebouncer debouncer = new ProgressUpdateDebouncer(1000, () -> executor);
+
+        debouncer.submit("run#1", () -> published.add("first"));
+        debouncer.submit("run#1", () -> published.add("second"));
+        debouncer.submit("run#2", () -> published.add("other"));
+
+        List<Runnable> flushes = captureFlushes(2);
+        assertThat(published).isEmpty();
+
+        flushes.forEach(Runnable::run);
+        assertThat(published).containsExactly("second", "other");
+
+        debouncer.submit("run#1", () -> published.add("third"));
+        captureFlushes(3).get(2).run();
+        assertThat(published).containsExactly("second", "other", "third");
+    }
+
+    @Test
+    void shouldNotPublishCancelledUpdate() {
+        ProgressUpdateDebouncer debouncer = new ProgressUpdateDebouncer(1000, () -> executor);
+
+        debouncer.submit("run#1", () -> published.add("first"));
+        debouncer.cancel("run#1");
+        captureFlushes(1).get(0).run();
+
+        assertThat(published).isEmpty();
+    }
+
+    private List<Runnable> captureFlushes(final int count) {
+        ArgumentCaptor<Runnable> flushes = ArgumentCaptor.forClass(Runnable.class);
+        verify(executor, times(count)).schedule(flushes.capture(), eq(1000L), any(TimeUnit.class));
+        return flushes.getAllValues();
+    }
+}
@@ -0,0 +1,86 @@
+package io.jenkins.plugins.checks.status;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.jenkins.plugins.checks.api.ChecksConclusion;
+import io.jenkins.plugins.checks.status.PublishOutbox.PendingCheck;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests the class {@link PublishOutbox}.
+ */
+class PublishOutboxTest {
+    @TempDir
+    private Path directory;
+
+    @Test
+    void shouldReplayPendingChecksAfterReopening() throws IOException {
+        Path journal = directory.resolve("journal");
+        try (PublishOutbox outbox = PublishOutbox.open(journal, 100)) {
+            outbox.add("job#1", "build", ChecksConclusion.SUCCESS);
+            PendingCheck delivered = outbox.add("job#2", "build", ChecksConclusion.FAILURE);
+            outbox.add("job#3", "tests", ChecksConclusion.NEUTRAL);
+            outbox.delivered(delivered);
+        }
+
+        try (PublishOutbox outbox = PublishOutbox.open(journal, 100)) {
+            List<PendingCheck> pending = outbox.getPending();
+
+            assertThat(pending).extracting(PendingCheck::getRunId).containsExactly("job#1", "job#3");
+            assertThat(pending).extracting(PendingCheck::getName).containsExactly("build", "tests");
+            assertThat(pending).extracting(PendingCheck::getConclusion)
+                    .containsExactly(ChecksConclusion.SUCCESS, ChecksConclusion.NEUTRAL);
+            assertThat(outbox.add("job#4", "build", ChecksConclusion.SUCCESS).getId()).isEqualTo(3);
+        }
+    }
+
+    @Test
+    void shouldDropTornRecord() throws IOException {
+        Path journal = directory.resolve("journal");
+        try (PublishOutbox outbox = PublishOutbox.open(journal, 100)) {
+            outbox.add("job#1", "build", ChecksConclusion.SUCCESS);
+            outbox.add("job#2", "build", ChecksConclusion.SUCCESS);
+        }
+        byte[] content = Files.readAllBytes(journal);
+        Files.write(journal, Arrays.copyOf(content, content.length - 3));
+
+        try (PublishOutbox outbox = PublishOutbox.open(journal, 100)) {
+            outbox.add("job#3", "build", ChecksConclusion.SUCCESS);
+        }
+
+        try (PublishOutbox outbox = PublishOutbox.open(journal, 100)) {
+            assertThat(outbox.getPending()).extracting(PendingCheck::getRunId).containsExactly("job#1", "job#3");
+        }
+    }
+
+    @Test
+    void shouldCompactDeliveredChecks() throws IOException {
+        Path journal = directory.resolve("journal");
+        try (PublishOutbox outbox = PublishOutbox.open(journal, 10)) {
+            List<PendingCheck> checks = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                checks.add(outbox.add("job#" + i, "build", ChecksConclusion.SUCCESS));
+            }
+            long size = Files.size(journal);
+            for (PendingCheck check : checks.subList(0, 19)) {
+                outbox.delivered(check);
+            }
+
+            assertThat(Files.size(journal)).isLessThan(size);
+            assertThat(outbox.getPending()).extracting(PendingCheck::getRunId).containsExactly("job#19");
+        }
+
+        try (PublishOutbox outbox = PublishOutbox.open(journal, 10)) {
+            assertThat(outbox.getPending()).extracting(PendingCheck::getRunId).containsExactly("job#19");
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package io.jenkins.plugins.checks.status;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+/**
+ * Tests the class {@link PublishQueue}.
+ */
+class PublishQueueTest {
+    private final Queue<Runnable> tasks = new ArrayDeque<>();
+    private final Executor workers = tasks::add;
+    private final List<String> published = new ArrayList<>();
+
+    @Test
+    void shouldPublishOnWorkersInOrderOfKey() {
+        PublishQueue queue = new PublishQueue(10, workers);
+
+        queue.submit("a", () -> published.add("a1"));
+        queue.submit("a", () -> published.add("a2"));
+        queue.submit("b", () -> published.add("b1"));
+
+        assertThat(published).isEmpty();
+        assertThat(tasks).hasSize(2);
+        assertThat(queue.getWaiting()).isEqualTo(3);
+
+        runTasks();
+
+        assertThat(published).containsExactly("a1", "b1", "a2");
+        assertThat(queue.getWaiting()).isZero();
+        assertThat(queue.getMaxWaiting()).isEqualTo(3);
+        assertThat(queue.getSubmitted()).isEqualTo(3);
+        assertThat(queue.getDelivered()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldNotPublishKeyConcurrently() {
+        PublishQueue queue = new PublishQueue(10, workers);
+
+        queue.submit("a", () -> {
+            queue.submit("a", () -> published.add("a2"));
+            assertThat(tasks).isEmpty();
+            published.add("a1");
+        });
+        tasks.remove().run();
+
+        assertThat(published).containsExactly("a1");
+        assertThat(tasks).hasSize(1);
+
+        runTasks();
+
+        assertThat(published).containsExactly("a1", "a2");
+    }
+
+    @Test
+    void shouldPublishOnSubmittingThreadWhenFull() {
+        PublishQueue queue = new PublishQueue(1, workers);
+
+        queue.submit("a", () -> published.add("a1"));
+        queue.submit("b", () -> published.add("b1"));
+
+        assertThat(published).containsExactly("b1");
+        assertThat(queue.getThrottled()).isEqualTo(1);
+
+        runTasks();
+
+        assertThat(published).containsExactly("b1", "a1");
+        assertThat(queue.getDelivered()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldDropPublishWhenFullRatherThanBlockingSubmittingThread() {
+        PublishQueue queue = new PublishQueue(1, workers);
+
+        queue.submit("a", () -> published.add("a1"));
+
+        // submitting to the full queue would wait for the lane of "a", which the workers never deliver in this test
+        boolean submitted = assertTimeoutPreemptively(Duration.ofSeconds(10),
+                () -> queue.trySubmit("a", () -> published.add("a2")));
+
+        assertThat(submitted).isFalse();
+        assertThat(published).isEmpty();
+        assertThat(queue.getDropped()).isEqualTo(1);
+        assertThat(queue.getThrottled()).isZero();
+
+        runTasks();
+
+        assertThat(published).containsExactly("a1");
+        assertThat(queue.trySubmit("a", () -> published.add("a3"))).isTrue();
+        assertThat(published).as("the publish is delivered by a worker").containsExactly("a1");
+
+        runTasks();
+
+        assertThat(published).containsExactly("a1", "a3");
+    }
+
+    @Test
+    void shouldCountFailedPublishes() throws InterruptedException {
+        PublishQueue queue = new PublishQueue(10, Runnable::run);
+
+        queue.submit("a", () -> {
+            throw new IllegalStateException("platform is down");
+        });
+        queue.submit("a", () -> published.add("a2"));
+
+        assertThat(published).containsExactly("a2");
+        assertThat(queue.getFailed()).isEqualTo(1);
+        assertThat(queue.getDelivered()).isEqualTo(1);
+        assertThat(queue.awaitDelivery(0, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void shouldWaitForDelivery() throws InterruptedException {
+        PublishQueue queue = new PublishQueue(10, workers);
+
+        queue.submit("a", () -> published.add("a1"));
+
+        assertThat(queue.awaitDelivery(10, TimeUnit.MILLISECONDS)).isFalse();
+
+        runTasks();
+
+        assertThat(queue.awaitDelivery(10, TimeUnit.MILLISECONDS)).isTrue();
+    }
+
+    private void runTasks() {
+        while (!tasks.isEmpty()) {
+            tasks.remove().run();
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package io.jenkins.plugins.checks.status;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Waits for the checks of the build status, which are published asynchronously, so that tests of other packages can
+ * inspect them.
+ */
+public final class PublishedChecksAwaiter {
+    private PublishedChecksAwaiter() {
+        // prevents instantiation
+    }
+
+    /**
+     * Waits until the checks that have been submitted so far have been published.
+     *
+     * @param timeout
+     *         the maximum time to wait
+     * @param unit
+     *         the unit of the timeout
+     * @return {@code true} if the checks have been published, {@code false} if the timeout elapsed before
+     * @throws InterruptedException
+     *         if the thread has been interrupted while waiting
+     */
+    public static boolean awaitPublishedChecks(final long timeout, final TimeUnit unit) throws InterruptedException {
+        return BuildStatusChecksPublisher.awaitPublishedChecks(timeout, unit);
+    }
+}
@@ -3,6 +3,7 @@ package io.jenkins.plugins.checks.util;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 import hudson.ExtensionList;
 import hudson.model.Job;
@@ -12,6 +13,7 @@ import hudson.model.TaskListener;
 import io.jenkins.plugins.checks.api.ChecksDetails;
 import io.jenkins.plugins.checks.api.ChecksPublisher;
 import io.jenkins.plugins.checks.api.ChecksPublisherFactory;
+import io.jenkins.plugins.checks.status.PublishedChecksAwaiter;
 
 /**
  * Implementation of {@link ChecksPublisher} for use in testing, that records each captured checks in a simple list.
@@ -70,7 +72,19 @@ public class CapturingChecksPublisher extends ChecksPublisher {
             return Optional.of(publisher);
         }
 
+        /**
+         * Returns the checks that have been published, after waiting for the checks of the build status that are
+         * published asynchronously.
+         *
+         * @return the published checks
+         */
         public List<ChecksDetails> getPublishedChecks() {
+            try {
+                PublishedChecksAwaiter.awaitPublishedChecks(1, TimeUnit.MINUTES);
+            }
+            catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
             return ExtensionList.lookup(Factory.class).get(0).publisher.publishedChecks;
         }
     }